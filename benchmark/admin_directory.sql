@@ -0,0 +1,82 @@
+-- Query plans for the paginated admin student directory (AdminService.getStudentDirectory) at 50,000 students.
+--
+-- Usage (scratch database only, never production):
+--   createdb directory_bench
+--   psql -d directory_bench -f src/main/resources/db/migration/V1__baseline_schema.sql
+--   psql -d directory_bench -v phase=before -f benchmark/admin_directory.sql > before.txt
+--   psql -d directory_bench -f src/main/resources/db/migration/V11__user_directory_indexes.sql
+--   psql -d directory_bench -v phase=after  -f benchmark/admin_directory.sql > after.txt
+--
+-- The data load only runs when the students table is empty, so the second run reuses it.
+-- Each statement mirrors the SQL Hibernate generates for the JOINED Student entity.
+
+\set ON_ERROR_STOP on
+\timing on
+
+-- ---------------------------------------------------------------------------
+-- Dataset: 50,000 students over 10 hostels, 8 courses and 4 years; ~5% inactive
+-- ---------------------------------------------------------------------------
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM students) THEN
+        RAISE NOTICE 'Dataset already loaded, skipping';
+        RETURN;
+    END IF;
+
+    INSERT INTO users (user_type, username, password, full_name, email, role, is_active, created_at)
+    SELECT 'STUDENT', 'MIT2024' || lpad(g::text, 5, '0'), 'x',
+           (ARRAY['Aarav', 'Diya', 'Ishaan', 'Meera', 'Rohan', 'Sara', 'Vihaan', 'Zoya'])[g % 8 + 1]
+               || ' ' || md5(g::text),
+           'student' || g || '@bench.local', 'STUDENT', random() > 0.05,
+           now() - (random() * interval '1460 days')
+    FROM generate_series(1, 50000) g;
+
+    INSERT INTO students (user_id, roll_number, course, degree, year_of_study, hostel_name, room_number)
+    SELECT u.id, u.username,
+           (ARRAY['CSE', 'ECE', 'ME', 'CE', 'EE', 'IT', 'CHE', 'BT'])[u.id % 8 + 1],
+           'B.Tech', u.id % 4 + 1, 'Hostel ' || (u.id % 10 + 1), (u.id % 400)::text
+    FROM users u WHERE u.role = 'STUDENT';
+END $$;
+
+ANALYZE users;
+ANALYZE students;
+
+\echo === phase :phase ===
+
+-- First page, default order (fullName, id), page size 20
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT u.id, u.username, u.full_name, u.email, u.mobile_number, u.is_active, u.created_at, u.last_login,
+       s.roll_number, s.course, s.degree, s.year_of_study, s.hostel_name, s.room_number
+FROM students s JOIN users u ON u.id = s.user_id
+ORDER BY u.full_name, u.id
+LIMIT 20;
+
+-- Its count query
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(s.user_id) FROM students s JOIN users u ON u.id = s.user_id;
+
+-- Filtered page: one hostel, one course, one year, active only
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT u.id, u.username, u.full_name, u.email, u.mobile_number, u.is_active, u.created_at, u.last_login,
+       s.roll_number, s.course, s.degree, s.year_of_study, s.hostel_name, s.room_number
+FROM students s JOIN users u ON u.id = s.user_id
+WHERE s.hostel_name = 'Hostel 3' AND s.course = 'CSE' AND s.year_of_study = 2 AND u.is_active = true
+ORDER BY u.full_name, u.id
+LIMIT 20;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(s.user_id) FROM students s JOIN users u ON u.id = s.user_id
+WHERE s.hostel_name = 'Hostel 3' AND s.course = 'CSE' AND s.year_of_study = 2 AND u.is_active = true;
+
+-- Deep page (page 1000 of 2500): offset cost grows with the page number
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT u.id, u.username, u.full_name, u.email, u.mobile_number, u.is_active, u.created_at, u.last_login,
+       s.roll_number, s.course, s.degree, s.year_of_study, s.hostel_name, s.room_number
+FROM students s JOIN users u ON u.id = s.user_id
+ORDER BY u.full_name, u.id
+LIMIT 20 OFFSET 20000;
+
+-- Previous implementation for comparison: every student row shipped to the application,
+-- followed by one findById per student inside convertToUserDTO
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT u.*, s.* FROM students s JOIN users u ON u.id = s.user_id;
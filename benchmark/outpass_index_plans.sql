@@ -0,0 +1,135 @@
+-- Before/after query plans for the V2 outpass indexes on a generated 1M-row dataset.
+--
+-- Usage (scratch database only, never production):
+--   createdb outpass_bench
+--   psql -d outpass_bench -f src/main/resources/db/migration/V1__baseline_schema.sql
+--   psql -d outpass_bench -v phase=before -f benchmark/outpass_index_plans.sql > before.txt
+--   psql -d outpass_bench -f src/main/resources/db/migration/V2__outpass_access_path_indexes.sql
+--   psql -d outpass_bench -v phase=after  -f benchmark/outpass_index_plans.sql > after.txt
+--
+-- The data load only runs when the outpasses table is empty, so the second run reuses it.
+
+\set ON_ERROR_STOP on
+\timing on
+
+-- ---------------------------------------------------------------------------
+-- Dataset: 10 hostels, 10 wardens, 5 gate officers, 20,000 students, 1,000,000 outpasses
+-- ---------------------------------------------------------------------------
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM outpasses) THEN
+        RAISE NOTICE 'Dataset already loaded, skipping';
+        RETURN;
+    END IF;
+
+    INSERT INTO users (user_type, username, password, full_name, email, role, is_active, created_at)
+    SELECT 'WARDEN', 'warden' || g, 'x', 'Warden ' || g, 'warden' || g || '@bench.local', 'WARDEN', true, now()
+    FROM generate_series(1, 10) g;
+
+    INSERT INTO wardens (user_id, employee_id, department, designation, hostel_assigned)
+    SELECT u.id, 'EMP' || u.id, 'Hostel', 'Warden', 'Hostel ' || ((u.id - 1) % 10 + 1)
+    FROM users u WHERE u.role = 'WARDEN';
+
+    INSERT INTO users (user_type, username, password, full_name, email, role, is_active, created_at)
+    SELECT 'Security', 'gate' || g, 'x', 'Gate ' || g, 'gate' || g || '@bench.local', 'SECURITY', true, now()
+    FROM generate_series(1, 5) g;
+
+    INSERT INTO security_personnel (user_id, security_id, shift)
+    SELECT u.id, 'SEC' || u.id, 'DAY' FROM users u WHERE u.role = 'SECURITY';
+
+    INSERT INTO users (user_type, username, password, full_name, email, role, is_active, created_at)
+    SELECT 'STUDENT', 'MIT2024' || lpad(g::text, 5, '0'), 'x', 'Student ' || g,
+           'student' || g || '@bench.local', 'STUDENT', true, now()
+    FROM generate_series(1, 20000) g;
+
+    INSERT INTO students (user_id, roll_number, course, degree, hostel_name, room_number)
+    SELECT u.id, u.username, 'CSE', 'B.Tech', 'Hostel ' || (u.id % 10 + 1), (u.id % 400)::text
+    FROM users u WHERE u.role = 'STUDENT';
+
+    -- Three years of history: ~99.5% finished, a small live tail like a real term
+    INSERT INTO outpasses (student_id, leave_start_date, expected_return_date, reason, status,
+                           reviewed_by, departure_marked_by, return_marked_by,
+                           actual_departure_time, actual_return_time, is_late_return, created_at, destination)
+    SELECT s.user_id,
+           t.created + interval '2 hours',
+           t.created + interval '10 hours',
+           'Benchmark outpass ' || g,
+           t.status,
+           CASE WHEN t.status <> 'PENDING' THEN w.user_id END,
+           CASE WHEN t.status IN ('ACTIVE', 'COMPLETED') THEN sp.user_id END,
+           CASE WHEN t.status = 'COMPLETED' THEN sp.user_id END,
+           CASE WHEN t.status IN ('ACTIVE', 'COMPLETED') THEN t.created + interval '2 hours' END,
+           CASE WHEN t.status = 'COMPLETED' THEN t.created + interval '9 hours' END,
+           CASE WHEN t.status = 'COMPLETED' THEN random() < 0.05 END,
+           t.created,
+           'City'
+    FROM generate_series(1, 1000000) g
+    CROSS JOIN LATERAL (
+        SELECT now() - (random() * interval '1095 days') AS created,
+               CASE
+                   WHEN g % 1000 = 0 THEN 'PENDING'
+                   WHEN g % 1000 = 1 THEN 'APPROVED'
+                   WHEN g % 1000 = 2 THEN 'ACTIVE'
+                   WHEN g % 20 = 3   THEN 'REJECTED'
+                   WHEN g % 20 = 4   THEN 'CANCELLED'
+                   ELSE 'COMPLETED'
+               END AS status
+    ) t
+    JOIN students s ON s.user_id = (SELECT min(user_id) FROM students) + (g % 20000)
+    JOIN wardens w ON w.user_id = (SELECT min(user_id) FROM wardens) + (g % 10)
+    JOIN security_personnel sp ON sp.user_id = (SELECT min(user_id) FROM security_personnel) + (g % 5);
+END $$;
+
+ANALYZE users;
+ANALYZE students;
+ANALYZE outpasses;
+
+\echo '=== phase:' :phase
+
+-- Warden/security pending queue (findPendingOutpassesPage, first page of 51)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT o.* FROM outpasses o
+WHERE o.status = 'PENDING' AND (o.created_at > '1970-01-01' OR (o.created_at = '1970-01-01' AND o.id > 0))
+ORDER BY o.created_at, o.id LIMIT 51;
+
+-- Gate: approved, ready for departure (findApprovedOutpassesPage)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT o.* FROM outpasses o
+WHERE o.status = 'APPROVED' AND (o.leave_start_date > '1970-01-01' OR (o.leave_start_date = '1970-01-01' AND o.id > 0))
+ORDER BY o.leave_start_date, o.id LIMIT 51;
+
+-- Gate: active (findActiveOutpassesPage)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT o.* FROM outpasses o
+WHERE o.status = 'ACTIVE'
+ORDER BY o.actual_departure_time, o.id LIMIT 51;
+
+-- Student history (findOutpassesByStudentIdPage)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT o.* FROM outpasses o
+WHERE o.student_id = (SELECT min(user_id) FROM students) + 42
+ORDER BY o.created_at DESC, o.id DESC LIMIT 51;
+
+-- Apply-time guard (hasActiveOrPendingOutpass)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*) > 0 FROM outpasses o
+WHERE o.student_id = (SELECT min(user_id) FROM students) + 42
+  AND o.status IN ('PENDING', 'APPROVED', 'ACTIVE');
+
+-- Overdue sweep (findExpiredOutpasses)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT o.* FROM outpasses o
+WHERE o.expected_return_date < now() AND o.status IN ('APPROVED', 'ACTIVE')
+ORDER BY o.expected_return_date;
+
+-- Gate dashboard recent activity (findRecentGateActivity)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT o.* FROM outpasses o
+WHERE o.actual_departure_time IS NOT NULL
+ORDER BY o.actual_departure_time DESC, o.id DESC LIMIT 10;
+
+-- Warden hostel pending queue (findPendingOutpassesByHostelPage)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT o.* FROM outpasses o JOIN students s ON s.user_id = o.student_id
+WHERE s.hostel_name = 'Hostel 3' AND o.status = 'PENDING'
+ORDER BY o.created_at, o.id LIMIT 51;
@@ -0,0 +1,54 @@
+-- Regression check for WardenService.getDetailedStatistics at 100k outpasses per hostel.
+--
+-- Usage (scratch database only):
+--   load the 1M-row dataset with benchmark/outpass_index_plans.sql (10 hostels x 100k outpasses),
+--   apply migrations V2..V4 (V3 backfills outpasses.hostel_name), then:
+--   psql -d outpass_bench -f benchmark/warden_detailed_stats.sql > detailed_stats.txt
+--
+-- Each statement below is one of the three queries the dashboard now issues; none of them returns
+-- more than a handful of rows, so the response size no longer grows with the hostel's history.
+
+\set ON_ERROR_STOP on
+\timing on
+
+ANALYZE outpasses;
+
+SELECT hostel_name, count(*) FROM outpasses GROUP BY hostel_name ORDER BY hostel_name;
+
+-- Counts, late returns and rates: one grouped pass (getHostelStatusBreakdown)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT o.status, count(*), sum(CASE WHEN o.is_late_return THEN 1 ELSE 0 END)
+FROM outpasses o
+WHERE o.hostel_name = 'Hostel 3'
+GROUP BY o.status;
+
+-- Recent 10 (findAllOutpassesByHostelPage with the newest-first sentinel)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT o.*, s.roll_number, u.full_name
+FROM outpasses o
+JOIN students s ON s.user_id = o.student_id
+JOIN users u ON u.id = s.user_id
+WHERE o.hostel_name = 'Hostel 3'
+  AND (o.created_at < '9999-12-31' OR (o.created_at = '9999-12-31' AND o.id < 9223372036854775807))
+ORDER BY o.created_at DESC, o.id DESC
+LIMIT 10;
+
+-- First page of the pending queue (findPendingOutpassesByHostelPage, page size 50 + 1)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT o.*, s.roll_number, u.full_name
+FROM outpasses o
+JOIN students s ON s.user_id = o.student_id
+JOIN users u ON u.id = s.user_id
+WHERE o.hostel_name = 'Hostel 3' AND o.status = 'PENDING'
+  AND (o.created_at > '1970-01-01' OR (o.created_at = '1970-01-01' AND o.id > 0))
+ORDER BY o.created_at, o.id
+LIMIT 51;
+
+-- Previous implementation for comparison: every outpass of the hostel shipped to the application
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT o.*, s.roll_number, u.full_name
+FROM outpasses o
+JOIN students s ON s.user_id = o.student_id
+JOIN users u ON u.id = s.user_id
+WHERE s.hostel_name = 'Hostel 3'
+ORDER BY o.created_at DESC;
@@ -0,0 +1,46 @@
+package com.mit.outpass.config;
+
+import com.mit.outpass.enums.UserRole;
+import io.jsonwebtoken.Claims;
+
+import java.security.Principal;
+
+/**
+ * Principal placed in the SecurityContext by JwtAuthenticationFilter, built from the verified token claims
+ */
+public class AuthenticatedUser implements Principal {
+
+    private final Long userId;
+    private final String username;
+    private final UserRole role;
+    private final String fullName;
+
+    public AuthenticatedUser(Long userId, String username, UserRole role, String fullName) {
+        this.userId = userId;
+        this.username = username;
+        this.role = role;
+        this.fullName = fullName;
+    }
+
+    public static AuthenticatedUser fromClaims(Claims claims) {
+        return new AuthenticatedUser(
+                Long.valueOf(claims.get("userId").toString()),
+                claims.getSubject(),
+                UserRole.valueOf(claims.get("role").toString()),
+                claims.get("fullName", String.class));
+    }
+
+    public Long getUserId() { return userId; }
+
+    public String getUsername() { return username; }
+
+    public UserRole getRole() { return role; }
+
+    public String getFullName() { return fullName; }
+
+    @Override
+    public String getName() { return username; }
+
+    @Override
+    public String toString() { return username; }
+}
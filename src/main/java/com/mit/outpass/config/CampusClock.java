@@ -0,0 +1,61 @@
+package com.mit.outpass.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Calendar-day boundaries for "today" queries. The day follows the campus time zone
+ * (app.campus.time-zone, default the server's), while outpass timestamps are stored as server-local
+ * LocalDateTime, so each campus midnight is converted into server-local time. Use the bounds as a
+ * half-open range (>= start AND < end) so the timestamp indexes apply; DST days come out as 23 or 25 hours.
+ */
+@Component
+public class CampusClock {
+
+    private final ZoneId campusZone;
+    private final ZoneId storageZone = ZoneId.systemDefault();
+
+    public CampusClock(@Value("${app.campus.time-zone:}") String campusZone) {
+        this.campusZone = campusZone.isBlank() ? storageZone : ZoneId.of(campusZone);
+    }
+
+    public LocalDate today() {
+        return LocalDate.now(campusZone);
+    }
+
+    /**
+     * Server-local time at which the given campus day starts
+     */
+    public LocalDateTime startOf(LocalDate day) {
+        return day.atStartOfDay(campusZone).withZoneSameInstant(storageZone).toLocalDateTime();
+    }
+
+    /**
+     * Bounds of today, both derived from one reading of the clock so a call at midnight cannot mix two days
+     */
+    public DayRange todayRange() {
+        LocalDate today = today();
+        return new DayRange(startOf(today), startOf(today.plusDays(1)));
+    }
+
+    /**
+     * Half-open range [start, end) of one campus day in server-local time
+     */
+    public static final class DayRange {
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        private DayRange(LocalDateTime start, LocalDateTime end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        public LocalDateTime getStart() { return start; }
+
+        public LocalDateTime getEnd() { return end; }
+    }
+}
@@ -0,0 +1,37 @@
+package com.mit.outpass.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+
+/**
+ * Flyway owns the schema (src/main/resources/db/migration); Hibernate only validates it
+ */
+@Configuration
+public class FlywayConfig {
+
+    /**
+     * Databases created by Hibernate auto-DDL before Flyway was introduced are baselined at V1
+     * (the baseline schema) so only the later migrations run against them.
+     *
+     * The index migrations use CREATE INDEX CONCURRENTLY, which waits for every open transaction. By default
+     * Flyway holds its PostgreSQL advisory lock inside a transaction, so the build would wait on Flyway itself
+     * forever; take the session-level lock instead. Boot 3.1 has no spring.flyway property for this setting.
+     */
+    @Bean
+    public FlywayConfigurationCustomizer flywayBaselineCustomizer() {
+        return configuration -> configuration
+                .configuration(Map.of("flyway.postgresql.transactional.lock", "false"))
+                .baselineOnMigrate(true)
+                .baselineVersion("1");
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer schemaValidationCustomizer() {
+        return properties -> properties.put(AvailableSettings.HBM2DDL_AUTO, "validate");
+    }
+}
@@ -1,9 +1,10 @@
 package com.mit.outpass.config;
 
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
-import org.springframework.beans.factory.annotation.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -17,12 +18,16 @@ import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.Collections;
 
-import javax.crypto.SecretKey;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    @Value("${app.jwt.secret}")
-    private String jwtSecret;
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+
+    @Autowired
+    private JwtTokenVerifier jwtTokenVerifier;
+
+    @Autowired
+    private LiveFeedTicketStore liveFeedTicketStore;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
@@ -38,47 +43,48 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        String authHeader = request.getHeader("Authorization");
-        
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            try {
-                String token = authHeader.substring(7);
-                Claims claims = validateToken(token);
-                
-                String username = claims.getSubject();
-                String role = claims.get("role", String.class);
-                
-                System.out.println("🔐 JWT Filter - Authenticating user: " + username + " with role: " + role);
+        try {
+            AuthenticatedUser principal = resolvePrincipal(request, path);
+            if (principal != null) {
+                // Request-scoped fields picked up by the log pattern
+                MDC.put("userId", String.valueOf(principal.getUserId()));
+                MDC.put("role", principal.getRole().name());
+                log.debug("Authenticating user {} with role {}", principal.getUsername(), principal.getRole());
                 
                 // Create authentication object with proper authority
                 UsernamePasswordAuthenticationToken authentication = 
                     new UsernamePasswordAuthenticationToken(
-                        username, 
+                        principal, 
                         null, 
-                        Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role))
+                        Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + principal.getRole().name()))
                     );
                 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
-                
+            }
+            
+            filterChain.doFilter(request, response);
+        } finally {
+            // Request threads are pooled; never leak one request's fields into the next
+            MDC.clear();
+        }
+    }
+    
+    // Bearer header, or a single-use ?ticket= on the two SSE live feeds only (EventSource cannot set headers)
+    private AuthenticatedUser resolvePrincipal(HttpServletRequest request, String path) {
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            try {
+                Claims claims = jwtTokenVerifier.verify(authHeader.substring(7));
+                return AuthenticatedUser.fromClaims(claims);
             } catch (Exception e) {
-                System.out.println("❌ JWT Validation failed: " + e.getMessage());
+                log.debug("JWT validation failed: {}", e.getMessage());
                 // Continue without authentication - will be handled by Spring Security
+                return null;
             }
         }
-        
-        filterChain.doFilter(request, response);
-    }
-
-    private Claims validateToken(String token) {
-        try {
-            SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-            return Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-        } catch (Exception e) {
-            throw new RuntimeException("Invalid JWT token");
+        if (LiveFeedTicketStore.LIVE_FEED_PATHS.contains(path)) {
+            return liveFeedTicketStore.redeem(request.getParameter("ticket"));
         }
+        return null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,29 @@
+package com.mit.outpass.config;
+
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.crypto.SecretKey;
+
+/**
+ * Signing key and parser are built once; both are immutable and thread-safe
+ */
+@Configuration
+public class JwtConfig {
+
+    @Bean
+    public SecretKey jwtSigningKey(@Value("${app.jwt.secret}") String jwtSecret) {
+        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    }
+
+    @Bean
+    public JwtParser jwtParser(SecretKey jwtSigningKey) {
+        return Jwts.parserBuilder()
+                .setSigningKey(jwtSigningKey)
+                .build();
+    }
+}
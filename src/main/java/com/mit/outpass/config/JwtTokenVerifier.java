@@ -0,0 +1,81 @@
+package com.mit.outpass.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifies JWTs once and remembers the verified claims until the token expires.
+ * Entries are keyed by the SHA-256 of the token so raw tokens are never held in memory.
+ */
+@Component
+public class JwtTokenVerifier {
+
+    private final JwtParser jwtParser;
+    private final Cache<String, Claims> verifiedClaims;
+
+    public JwtTokenVerifier(JwtParser jwtParser,
+                            @Value("${app.jwt.claims-cache.max-size:10000}") long maxSize,
+                            @Value("${app.jwt.claims-cache.max-ttl-seconds:600}") long maxTtlSeconds) {
+        this.jwtParser = jwtParser;
+        long maxTtlNanos = TimeUnit.SECONDS.toNanos(maxTtlSeconds);
+        this.verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        Date expiration = claims.getExpiration();
+                        if (expiration == null) {
+                            return maxTtlNanos;
+                        }
+                        long remaining = TimeUnit.MILLISECONDS.toNanos(expiration.getTime() - System.currentTimeMillis());
+                        return Math.max(0, Math.min(remaining, maxTtlNanos));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Return the verified claims for a token, parsing it only on a cache miss.
+     * Invalid or expired tokens throw the parser's JwtException and are never cached.
+     */
+    public Claims verify(String token) {
+        String key = hash(token);
+        Claims claims = verifiedClaims.getIfPresent(key);
+        if (claims == null) {
+            claims = jwtParser.parseClaimsJws(token).getBody();
+            verifiedClaims.put(key, claims);
+        }
+        return claims;
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.mit.outpass.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Set;
+
+/**
+ * Short-lived, single-use tickets for opening an SSE live feed. EventSource cannot send an
+ * Authorization header, so the client trades its JWT for a ticket and passes that as ?ticket=
+ * instead; the JWT itself never appears in a URL (access logs, proxies, browser history).
+ */
+@Component
+public class LiveFeedTicketStore {
+
+    // The only endpoints that accept ?ticket=
+    public static final Set<String> LIVE_FEED_PATHS = Set.of("/api/security/live", "/api/warden/live");
+
+    private final SecureRandom random = new SecureRandom();
+    private final Cache<String, AuthenticatedUser> tickets;
+
+    public LiveFeedTicketStore(@Value("${app.live.ticket-ttl-seconds:30}") long ttlSeconds,
+                               @Value("${app.live.ticket-max-size:10000}") long maxSize) {
+        this.tickets = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    public String issue(AuthenticatedUser user) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String ticket = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        tickets.put(ticket, user);
+        return ticket;
+    }
+
+    /**
+     * The user the ticket was issued to, or null if it is unknown, expired or already used
+     */
+    public AuthenticatedUser redeem(String ticket) {
+        return ticket != null ? tickets.asMap().remove(ticket) : null;
+    }
+}
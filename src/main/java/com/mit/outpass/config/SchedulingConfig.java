@@ -0,0 +1,20 @@
+package com.mit.outpass.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.TaskSchedulerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The @Scheduled jobs (expiry tick, outbox relay, SSE heartbeat, last-login flush, counter reconcile)
+ * share Spring's task scheduler, which has a single thread by default: one slow run would hold up
+ * every other job, including the 1s expiry tick. Give them a small pool instead.
+ */
+@Configuration
+public class SchedulingConfig {
+
+    @Bean
+    public TaskSchedulerCustomizer schedulerPoolCustomizer(@Value("${spring.task.scheduling.pool.size:4}") int poolSize) {
+        return scheduler -> scheduler.setPoolSize(poolSize);
+    }
+}
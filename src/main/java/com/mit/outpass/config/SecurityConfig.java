@@ -2,7 +2,10 @@ package com.mit.outpass.config;
 
 import java.util.Arrays;
 
+import jakarta.servlet.DispatcherType;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -24,9 +27,10 @@ import org.springframework.web.servlet.handler.HandlerMappingIntrospector;
 @EnableMethodSecurity
 public class SecurityConfig {
 
+    // Raising the cost takes effect for existing users as they log in (AuthService rehashes)
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.security.bcrypt.strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 
    @Autowired
@@ -44,6 +48,10 @@ public SecurityFilterChain filterChain(HttpSecurity http, HandlerMappingIntrospe
         .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
         
         .authorizeHttpRequests(auth -> auth
+    // Async re-dispatches of the SSE live feeds were already authorized on the original request
+    .requestMatchers(request -> request.getDispatcherType() == DispatcherType.ASYNC
+            && LiveFeedTicketStore.LIVE_FEED_PATHS.contains(request.getServletPath())).permitAll()
+    
     // Public endpoints
     .requestMatchers(mvc.pattern("/auth/**")).permitAll()
     .requestMatchers(mvc.pattern("/h2-console/**")).permitAll()
@@ -76,8 +84,8 @@ public SecurityFilterChain filterChain(HttpSecurity http, HandlerMappingIntrospe
         "http://localhost:3000",
         "https://outpass-frontend.onrender.com"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
-        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "X-Requested-With"));
-        configuration.setExposedHeaders(Arrays.asList("Authorization"));
+        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "X-Requested-With", "Idempotency-Key"));
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "Idempotent-Replayed"));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
         
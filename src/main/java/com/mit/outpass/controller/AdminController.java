@@ -1,19 +1,32 @@
 package com.mit.outpass.controller;
 
 import com.mit.outpass.dto.ApiResponse;
+import com.mit.outpass.dto.PageResponse;
+import com.mit.outpass.dto.StudentImportResult;
 import com.mit.outpass.dto.UserDTO;
 import com.mit.outpass.entity.Admin;
 import com.mit.outpass.entity.User;
+import com.mit.outpass.enums.OutpassStatus;
 import com.mit.outpass.enums.UserRole;
 import com.mit.outpass.exception.ResourceNotFoundException;
 import com.mit.outpass.service.AdminService;
 import com.mit.outpass.service.AuthService;
+import com.mit.outpass.service.OutpassExportService;
+import com.mit.outpass.service.StudentImportService;
 import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,6 +42,12 @@ public class AdminController {
     @Autowired
     private AuthService authService;
     
+    @Autowired
+    private StudentImportService studentImportService;
+    
+    @Autowired
+    private OutpassExportService outpassExportService;
+    
     /**
      * Get dashboard statistics with permission check
      */
@@ -222,12 +241,6 @@ public class AdminController {
             
             List<UserDTO> admins = adminService.getAllAdmins();
             
-            // Debug log
-            System.out.println("Fetched " + admins.size() + " admins with permissions:");
-            for (UserDTO admin : admins) {
-                System.out.println("Admin: " + admin.getUsername() + " - Permission: " + admin.getPermissionLevel());
-            }
-            
             ApiResponse<List<UserDTO>> response = ApiResponse.success("Admins fetched successfully", admins);
             return new ResponseEntity<>(response, HttpStatus.OK);
         } catch (Exception e) {
@@ -238,6 +251,153 @@ public class AdminController {
         }
     }
     
+    /**
+     * Student directory: one page, sortable, filterable by hostel, course, year and active flag
+     */
+    @GetMapping("/directory/students")
+    public ResponseEntity<ApiResponse<PageResponse<UserDTO>>> getStudentDirectory(
+            @RequestHeader("Authorization") String token,
+            @RequestParam(required = false) String hostel,
+            @RequestParam(required = false) String course,
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction) {
+        try {
+            // Verify admin access
+            Claims claims = authService.validateToken(token.replace("Bearer ", ""));
+            UserRole role = UserRole.valueOf(claims.get("role", String.class));
+            
+            if (role != UserRole.ADMIN) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(ApiResponse.error("Only administrators can access student data"));
+            }
+            
+            PageResponse<UserDTO> students = adminService.getStudentDirectory(
+                    hostel, course, year, active, page, size, sort, direction);
+            ApiResponse<PageResponse<UserDTO>> response = ApiResponse.success("Students fetched successfully", students);
+            return new ResponseEntity<>(response, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            ApiResponse<PageResponse<UserDTO>> response = ApiResponse.error(e.getMessage());
+            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            ApiResponse<PageResponse<UserDTO>> response = ApiResponse.error("Error fetching students: " + e.getMessage());
+            return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+    
+    /**
+     * Warden directory: one page, sortable, filterable by assigned hostel and active flag
+     */
+    @GetMapping("/directory/wardens")
+    public ResponseEntity<ApiResponse<PageResponse<UserDTO>>> getWardenDirectory(
+            @RequestHeader("Authorization") String token,
+            @RequestParam(required = false) String hostel,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction) {
+        try {
+            // Verify admin access
+            Claims claims = authService.validateToken(token.replace("Bearer ", ""));
+            UserRole role = UserRole.valueOf(claims.get("role", String.class));
+            
+            if (role != UserRole.ADMIN) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(ApiResponse.error("Only administrators can access warden data"));
+            }
+            
+            PageResponse<UserDTO> wardens = adminService.getWardenDirectory(hostel, active, page, size, sort, direction);
+            ApiResponse<PageResponse<UserDTO>> response = ApiResponse.success("Wardens fetched successfully", wardens);
+            return new ResponseEntity<>(response, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            ApiResponse<PageResponse<UserDTO>> response = ApiResponse.error(e.getMessage());
+            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            ApiResponse<PageResponse<UserDTO>> response = ApiResponse.error("Error fetching wardens: " + e.getMessage());
+            return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+    
+    /**
+     * Security staff directory: one page, sortable, filterable by gate and active flag
+     */
+    @GetMapping("/directory/security")
+    public ResponseEntity<ApiResponse<PageResponse<UserDTO>>> getSecurityDirectory(
+            @RequestHeader("Authorization") String token,
+            @RequestParam(required = false) String gate,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction) {
+        try {
+            // Verify admin access
+            Claims claims = authService.validateToken(token.replace("Bearer ", ""));
+            UserRole role = UserRole.valueOf(claims.get("role", String.class));
+            
+            if (role != UserRole.ADMIN) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(ApiResponse.error("Only administrators can access security data"));
+            }
+            
+            PageResponse<UserDTO> security = adminService.getSecurityDirectory(gate, active, page, size, sort, direction);
+            ApiResponse<PageResponse<UserDTO>> response = ApiResponse.success("Security personnel fetched successfully", security);
+            return new ResponseEntity<>(response, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            ApiResponse<PageResponse<UserDTO>> response = ApiResponse.error(e.getMessage());
+            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            ApiResponse<PageResponse<UserDTO>> response = ApiResponse.error("Error fetching security: " + e.getMessage());
+            return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+    
+    /**
+     * Admin directory - only for SUPER_ADMIN
+     */
+    @GetMapping("/directory/admins")
+    public ResponseEntity<ApiResponse<PageResponse<UserDTO>>> getAdminDirectory(
+            @RequestHeader("Authorization") String token,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction) {
+        try {
+            // Verify admin access and get permission level
+            Claims claims = authService.validateToken(token.replace("Bearer ", ""));
+            UserRole role = UserRole.valueOf(claims.get("role", String.class));
+            
+            if (role != UserRole.ADMIN) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(ApiResponse.error("Only administrators can access admin data"));
+            }
+            
+            String username = claims.getSubject();
+            User adminUser = authService.findByUsername(username)
+                    .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
+            
+            if (!"SUPER_ADMIN".equals(adminService.getAdminPermissionLevel(adminUser.getId()))) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(ApiResponse.error("Access denied. SUPER_ADMIN permission required."));
+            }
+            
+            PageResponse<UserDTO> admins = adminService.getAdminDirectory(active, page, size, sort, direction);
+            ApiResponse<PageResponse<UserDTO>> response = ApiResponse.success("Admins fetched successfully", admins);
+            return new ResponseEntity<>(response, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            ApiResponse<PageResponse<UserDTO>> response = ApiResponse.error(e.getMessage());
+            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            ApiResponse<PageResponse<UserDTO>> response = ApiResponse.error("Error fetching admins: " + e.getMessage());
+            return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+    
     /**
      * Create new admin - only for SUPER_ADMIN
      */
@@ -548,6 +708,38 @@ public class AdminController {
         }
     }
 
+    /**
+     * Search users by name (typo tolerant), username, email or institutional ID, best matches first
+     */
+    @GetMapping("/users/search")
+    public ResponseEntity<ApiResponse<List<UserDTO>>> searchUsers(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) UserRole role,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestHeader("Authorization") String token) {
+        try {
+            // Verify admin access
+            Claims claims = authService.validateToken(token.replace("Bearer ", ""));
+            UserRole requesterRole = UserRole.valueOf(claims.get("role", String.class));
+
+            if (requesterRole != UserRole.ADMIN) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(ApiResponse.error("Only administrators can search users"));
+            }
+
+            List<UserDTO> users = adminService.searchUsers(query, role, page, size);
+            ApiResponse<List<UserDTO>> response = ApiResponse.success("Users fetched successfully", users);
+            return new ResponseEntity<>(response, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            ApiResponse<List<UserDTO>> response = ApiResponse.error(e.getMessage());
+            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            ApiResponse<List<UserDTO>> response = ApiResponse.error("Error searching users: " + e.getMessage());
+            return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     /**
      * Get user by ID - FIXED RESPONSE FORMAT
      */
@@ -663,6 +855,71 @@ public class AdminController {
         }
     }
 
+    /**
+     * Stream outpass history as CSV or NDJSON, optionally filtered by creation date range [from, to), hostel and status
+     */
+    @GetMapping("/outpasses/export")
+    public void exportOutpasses(
+            @RequestHeader("Authorization") String token,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String hostel,
+            @RequestParam(required = false) OutpassStatus status,
+            HttpServletResponse response) throws IOException {
+        // Failures below are rendered by GlobalExceptionHandler, so they must happen before the body is written
+        Claims claims = authService.validateToken(token.replace("Bearer ", ""));
+        UserRole role = UserRole.valueOf(claims.get("role", String.class));
+        if (role != UserRole.ADMIN) {
+            throw new AccessDeniedException("Only administrators can export all outpasses");
+        }
+        OutpassExportService.Format exportFormat = OutpassExportService.Format.of(format);
+        OutpassExportService.checkRange(from, to);
+        
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"outpasses." + exportFormat.getExtension() + "\"");
+        outpassExportService.export(from, to, hostel, status, exportFormat, response.getOutputStream());
+    }
+    
+    /**
+     * Bulk-register an intake of students from a CSV file (header row of RegisterStudentRequest field names)
+     * or JSON lines (one RegisterStudentRequest per line). The body is streamed; rejected rows are listed
+     * with their line number and do not stop the rest of the import. If the file becomes unreadable partway
+     * (unknown column, unterminated quote) the rows before that point are kept and the error is attached.
+     */
+    @PostMapping(value = "/register/students/import",
+                 consumes = {StudentImportService.CSV, StudentImportService.JSON_LINES})
+    public ResponseEntity<ApiResponse<StudentImportResult>> importStudents(
+            @RequestHeader("Authorization") String token,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+        try {
+            // Verify admin access
+            Claims claims = authService.validateToken(token.replace("Bearer ", ""));
+            UserRole role = UserRole.valueOf(claims.get("role", String.class));
+            
+            if (role != UserRole.ADMIN) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(ApiResponse.error("Only administrators can register students"));
+            }
+            
+            String format = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType(StudentImportService.CSV))
+                    ? StudentImportService.CSV : StudentImportService.JSON_LINES;
+            StudentImportResult result = studentImportService.importStudents(body, format);
+            
+            String message = result.getImported() + " of " + result.getReceived() + " students imported";
+            if (result.getFatalError() != null) {
+                message = "Import stopped early: " + result.getFatalError() + ". " + message;
+            }
+            ApiResponse<StudentImportResult> response = ApiResponse.success(message, result);
+            return new ResponseEntity<>(response, HttpStatus.OK);
+        } catch (Exception e) {
+            ApiResponse<StudentImportResult> response = ApiResponse.error("Student import failed: " + e.getMessage());
+            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+        }
+    }
+
     // Update registerWarden method - USE PROVIDED USERNAME
     @PostMapping("/register/warden")
     public ResponseEntity<ApiResponse<String>> registerWarden(
@@ -6,9 +6,11 @@ import com.mit.outpass.dto.LoginRequest;
 import com.mit.outpass.dto.LoginResponse;
 import com.mit.outpass.dto.ResetPasswordRequest;
 import com.mit.outpass.dto.ResetPasswordByIdRequest; // ADD THIS IMPORT
+import com.mit.outpass.exception.ServiceBusyException;
 import com.mit.outpass.service.AuthService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -33,6 +35,11 @@ public class AuthController {
             LoginResponse loginResponse = authService.authenticateUser(loginRequest);
             ApiResponse<LoginResponse> response = ApiResponse.success("Login successful", loginResponse);
             return new ResponseEntity<>(response, HttpStatus.OK);
+        } catch (ServiceBusyException e) {
+            // Hashing pool saturated: tell the client to retry rather than reporting bad credentials
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             ApiResponse<LoginResponse> response = ApiResponse.error(e.getMessage());
             return new ResponseEntity<>(response, HttpStatus.UNAUTHORIZED);
@@ -1,6 +1,10 @@
 package com.mit.outpass.controller;
 
+import com.mit.outpass.config.AuthenticatedUser;
+import com.mit.outpass.config.CurrentUser;
+import com.mit.outpass.config.LiveFeedTicketStore;
 import com.mit.outpass.dto.ApiResponse;
+import com.mit.outpass.dto.CursorPage;
 import com.mit.outpass.dto.OutpassResponse;
 import com.mit.outpass.entity.Outpass;
 import com.mit.outpass.entity.Security;
@@ -11,12 +15,17 @@ import com.mit.outpass.repository.OutpassRepository;
 import com.mit.outpass.repository.StudentRepository;
 import com.mit.outpass.repository.WardenRepository;
 import com.mit.outpass.service.AuthService;
+import com.mit.outpass.service.IdempotencyCache;
+import com.mit.outpass.service.OutpassLiveFeed;
 import com.mit.outpass.service.OutpassService;
+import com.mit.outpass.service.OutpassStatusCounters;
 import com.mit.outpass.service.SecurityService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -24,6 +33,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 /**
  * REST Controller for security operations
@@ -51,19 +61,29 @@ public class SecurityController {
     @Autowired
     private WardenRepository wardenRepository;
     
+    @Autowired
+    private OutpassStatusCounters statusCounters;
+    
+    @Autowired
+    private OutpassLiveFeed outpassLiveFeed;
+    
+    @Autowired
+    private IdempotencyCache idempotencyCache;
+    
+    @Autowired
+    private LiveFeedTicketStore liveFeedTicketStore;
+    
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAY_HEADER = "Idempotent-Replayed";
+    
     /**
      * Get security officer profile
      */
     @GetMapping("/profile")
     public ResponseEntity<ApiResponse<SecurityProfileResponse>> getSecurityProfile(
-            @RequestHeader("Authorization") String token) {
+            @CurrentUser AuthenticatedUser currentUser) {
         try {
-            // Remove "Bearer " prefix
-            if (token.startsWith("Bearer ")) {
-                token = token.substring(7);
-            }
-            
-            Long securityId = authService.getUserIdFromToken(token);
+            Long securityId = currentUser.getUserId();
             
             // Get security officer details
             Security security = securityService.getSecurityById(securityId);
@@ -93,10 +113,12 @@ public class SecurityController {
      */
     @GetMapping("/outpasses/approved")
     public ResponseEntity<ApiResponse<List<OutpassResponse>>> getApprovedOutpasses(
-            @RequestHeader("Authorization") String token) {
+            @RequestHeader("Authorization") String token,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         try {
-            List<OutpassResponse> outpasses = outpassService.getApprovedOutpasses();
-            ApiResponse<List<OutpassResponse>> response = ApiResponse.success("Approved outpasses retrieved successfully", outpasses);
+            CursorPage<OutpassResponse> page = outpassService.getApprovedOutpassesPage(cursor, size);
+            ApiResponse<List<OutpassResponse>> response = ApiResponse.page("Approved outpasses retrieved successfully", page);
             return new ResponseEntity<>(response, HttpStatus.OK);
         } catch (Exception e) {
             ApiResponse<List<OutpassResponse>> response = ApiResponse.error(e.getMessage());
@@ -109,10 +131,31 @@ public class SecurityController {
      */
     @GetMapping("/outpasses/active")
     public ResponseEntity<ApiResponse<List<OutpassResponse>>> getActiveOutpasses(
-            @RequestHeader("Authorization") String token) {
+            @RequestHeader("Authorization") String token,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         try {
-            List<OutpassResponse> outpasses = outpassService.getActiveOutpasses();
-            ApiResponse<List<OutpassResponse>> response = ApiResponse.success("Active outpasses retrieved successfully", outpasses);
+            CursorPage<OutpassResponse> page = outpassService.getActiveOutpassesPage(cursor, size);
+            ApiResponse<List<OutpassResponse>> response = ApiResponse.page("Active outpasses retrieved successfully", page);
+            return new ResponseEntity<>(response, HttpStatus.OK);
+        } catch (Exception e) {
+            ApiResponse<List<OutpassResponse>> response = ApiResponse.error(e.getMessage());
+            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+        }
+    }
+    
+    /**
+     * Get outpasses this security officer has processed (departure or return), latest first
+     */
+    @GetMapping("/outpasses/history")
+    public ResponseEntity<ApiResponse<List<OutpassResponse>>> getProcessedOutpasses(
+            @CurrentUser AuthenticatedUser currentUser,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            Long securityId = currentUser.getUserId();
+            CursorPage<OutpassResponse> page = outpassService.getSecurityOutpassesPage(securityId, cursor, size);
+            ApiResponse<List<OutpassResponse>> response = ApiResponse.page("Processed outpasses retrieved successfully", page);
             return new ResponseEntity<>(response, HttpStatus.OK);
         } catch (Exception e) {
             ApiResponse<List<OutpassResponse>> response = ApiResponse.error(e.getMessage());
@@ -125,22 +168,20 @@ public class SecurityController {
      */
     @PutMapping("/outpass/{id}/departure")
     public ResponseEntity<ApiResponse<OutpassResponse>> markDeparture(
-            @RequestHeader("Authorization") String token,
+            @CurrentUser AuthenticatedUser currentUser,
             @PathVariable Long id,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             @RequestBody DepartureRequest request) {
         try {
-            // Remove "Bearer " prefix
-            if (token.startsWith("Bearer ")) {
-                token = token.substring(7);
-            }
-            
-            Long securityId = authService.getUserIdFromToken(token);
+            Long securityId = currentUser.getUserId();
             String comments = request.getComments() != null ? request.getComments() : "Student departed";
             
-            OutpassResponse outpass = outpassService.markDeparture(id, securityId, comments);
-            
-            ApiResponse<OutpassResponse> response = ApiResponse.success("Student departure marked successfully", outpass);
-            return new ResponseEntity<>(response, HttpStatus.OK);
+            return gateAction(securityId, idempotencyKey, "departure:" + id, "Student departure marked successfully",
+                    () -> outpassService.markDeparture(id, securityId, comments));
+        } catch (IllegalStateException e) {
+            // Already departed / not approved, or another gate won the race
+            ApiResponse<OutpassResponse> response = ApiResponse.error(e.getMessage());
+            return new ResponseEntity<>(response, HttpStatus.CONFLICT);
         } catch (Exception e) {
             ApiResponse<OutpassResponse> response = ApiResponse.error(e.getMessage());
             return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
@@ -155,30 +196,41 @@ public class SecurityController {
  */
 @PutMapping("/outpass/{id}/return")
 public ResponseEntity<ApiResponse<OutpassResponse>> markReturn(
-        @RequestHeader("Authorization") String token,
+        @CurrentUser AuthenticatedUser currentUser,
         @PathVariable Long id,
+        @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
         @RequestBody ReturnRequest request) {
     try {
-        // Remove "Bearer " prefix
-        if (token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-        
-        Long securityId = authService.getUserIdFromToken(token);
+        Long securityId = currentUser.getUserId();
         String comments = request.getComments() != null ? request.getComments() : "Student returned";
         String lateReturnReason = request.getLateReturnReason(); // Get the late return reason
         
-        // Pass all 4 parameters to service method
-        OutpassResponse outpass = outpassService.markReturn(id, securityId, comments, lateReturnReason);
-        
-        ApiResponse<OutpassResponse> response = ApiResponse.success("Student return marked successfully", outpass);
-        return new ResponseEntity<>(response, HttpStatus.OK);
+        return gateAction(securityId, idempotencyKey, "return:" + id, "Student return marked successfully",
+                () -> outpassService.markReturn(id, securityId, comments, lateReturnReason));
+    } catch (IllegalStateException e) {
+        // Not active any more, or returned concurrently at another gate
+        ApiResponse<OutpassResponse> response = ApiResponse.error(e.getMessage());
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
     } catch (Exception e) {
         ApiResponse<OutpassResponse> response = ApiResponse.error(e.getMessage());
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 }
     
+    // Runs a gate action, or replays the stored result when the Idempotency-Key was seen before
+    private ResponseEntity<ApiResponse<OutpassResponse>> gateAction(Long securityId, String idempotencyKey,
+                                                                    String fingerprint, String message,
+                                                                    Supplier<OutpassResponse> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return new ResponseEntity<>(ApiResponse.success(message, action.get()), HttpStatus.OK);
+        }
+        IdempotencyCache.Result<OutpassResponse> result =
+                idempotencyCache.execute(securityId, idempotencyKey, fingerprint, action);
+        return ResponseEntity.ok()
+                .header(IDEMPOTENT_REPLAY_HEADER, String.valueOf(result.isReplayed()))
+                .body(ApiResponse.success(message, result.getValue()));
+    }
+    
     /**
      * Get specific outpass details
      */
@@ -203,50 +255,30 @@ public ResponseEntity<ApiResponse<OutpassResponse>> markReturn(
     public ResponseEntity<ApiResponse<SecurityDashboardData>> getDashboard(
             @RequestHeader("Authorization") String token) {
         try {
-            List<OutpassResponse> approvedOutpasses = outpassService.getApprovedOutpasses();
-            List<OutpassResponse> activeOutpasses = outpassService.getActiveOutpasses();
-            List<OutpassResponse> allOutpasses = outpassService.getAllOutpasses();
+            // Totals come from the database; the lists are only the first keyset page of each queue,
+            // continued through /outpasses/approved and /outpasses/active with the returned cursors
+            Map<String, Long> counts = outpassService.getGateDashboardCounts();
+            CursorPage<OutpassResponse> departures = outpassService.getApprovedOutpassesPage(null, null);
+            CursorPage<OutpassResponse> returns = outpassService.getActiveOutpassesPage(null, null);
             
             SecurityDashboardData dashboardData = new SecurityDashboardData();
-            dashboardData.setApprovedOutpasses(approvedOutpasses.size());
-            dashboardData.setActiveOutpasses(activeOutpasses.size());
-            
-            // Count completed today
-            int completedToday = 0;
-            LocalDateTime today = LocalDateTime.now();
-            for (OutpassResponse outpass : allOutpasses) {
-                if (outpass.getStatus() == OutpassStatus.COMPLETED && 
-                    outpass.getActualReturnTime() != null &&
-                    outpass.getActualReturnTime().toLocalDate().equals(today.toLocalDate())) {
-                    completedToday++;
-                }
-            }
-            dashboardData.setCompletedToday(completedToday);
-            
-            // Count late returns
-            int lateReturns = 0;
-            for (OutpassResponse outpass : allOutpasses) {
-                if (Boolean.TRUE.equals(outpass.getIsLateReturn())) {
-                    lateReturns++;
-                }
-            }
-            dashboardData.setLateReturns(lateReturns);
+            dashboardData.setApprovedOutpasses(counts.get("approved").intValue());
+            dashboardData.setActiveOutpasses(counts.get("active").intValue());
+            dashboardData.setCompletedToday(counts.get("completedToday").intValue());
+            dashboardData.setLateReturns(counts.get("lateReturns").intValue());
             
-            dashboardData.setPendingDepartures(approvedOutpasses);
-            dashboardData.setPendingReturns(activeOutpasses);
+            dashboardData.setPendingDepartures(departures.getItems());
+            dashboardData.setPendingDeparturesNextCursor(departures.getNextCursor());
+            dashboardData.setPendingReturns(returns.getItems());
+            dashboardData.setPendingReturnsNextCursor(returns.getNextCursor());
             
             // Get recent activity
-            List<OutpassResponse> recentActivity = new ArrayList<>();
-            for (OutpassResponse outpass : allOutpasses) {
-                if (outpass.getActualDepartureTime() != null || outpass.getActualReturnTime() != null) {
-                    recentActivity.add(outpass);
-                    if (recentActivity.size() >= 10) {
-                        break;
-                    }
-                }
-            }
+            List<OutpassResponse> recentActivity = outpassService.getRecentGateActivity(10);
             dashboardData.setRecentActivity(recentActivity);
             
+            // Students still out past their expected return: ACTIVE with expected_return_date < now, read live
+            dashboardData.setOverdueStudents(outpassService.getOverdueOutpasses(50));
+            
             ApiResponse<SecurityDashboardData> response = ApiResponse.success("Dashboard data retrieved successfully", dashboardData);
             return new ResponseEntity<>(response, HttpStatus.OK);
         } catch (Exception e) {
@@ -255,6 +287,25 @@ public ResponseEntity<ApiResponse<OutpassResponse>> markReturn(
         }
     }
     
+    /**
+     * Single-use ticket for opening /live, valid for a few seconds. Fetch a new one before each (re)connect.
+     */
+    @PostMapping("/live/ticket")
+    public ResponseEntity<ApiResponse<Map<String, String>>> getLiveFeedTicket(@CurrentUser AuthenticatedUser currentUser) {
+        String ticket = liveFeedTicketStore.issue(currentUser);
+        return ResponseEntity.ok(ApiResponse.success("Live feed ticket issued", Map.of("ticket", ticket)));
+    }
+    
+    /**
+     * Live gate feed (Server-Sent Events): an "outpass" event for every committed status change.
+     * Optionally limited to one hostel. EventSource cannot send headers, so a ticket from
+     * /live/ticket is accepted as ?ticket= here.
+     */
+    @GetMapping(value = "/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter getLiveFeed(@RequestParam(required = false) String hostel) {
+        return outpassLiveFeed.subscribe(hostel);
+    }
+    
     /**
      * Get today's outpass activities
      */
@@ -262,40 +313,7 @@ public ResponseEntity<ApiResponse<OutpassResponse>> markReturn(
     public ResponseEntity<ApiResponse<TodayActivity>> getTodayActivity(
             @RequestHeader("Authorization") String token) {
         try {
-            List<OutpassResponse> allOutpasses = outpassService.getAllOutpasses();
-            LocalDateTime today = LocalDateTime.now();
-            
-            TodayActivity todayActivity = new TodayActivity();
-            
-            // Get departures today
-            List<OutpassResponse> departuresToday = new ArrayList<>();
-            for (OutpassResponse outpass : allOutpasses) {
-                if (outpass.getActualDepartureTime() != null && 
-                    outpass.getActualDepartureTime().toLocalDate().equals(today.toLocalDate())) {
-                    departuresToday.add(outpass);
-                }
-            }
-            todayActivity.setDeparturesToday(departuresToday);
-            
-            // Get returns today
-            List<OutpassResponse> returnsToday = new ArrayList<>();
-            for (OutpassResponse outpass : allOutpasses) {
-                if (outpass.getActualReturnTime() != null && 
-                    outpass.getActualReturnTime().toLocalDate().equals(today.toLocalDate())) {
-                    returnsToday.add(outpass);
-                }
-            }
-            todayActivity.setReturnsToday(returnsToday);
-            
-            // Get expected returns
-            List<OutpassResponse> expectedReturns = new ArrayList<>();
-            for (OutpassResponse outpass : allOutpasses) {
-                if (outpass.getStatus() == OutpassStatus.ACTIVE && 
-                    outpass.getExpectedReturnDate().toLocalDate().equals(today.toLocalDate())) {
-                    expectedReturns.add(outpass);
-                }
-            }
-            todayActivity.setExpectedReturns(expectedReturns);
+            TodayActivity todayActivity = outpassService.getTodayActivity();
             
             ApiResponse<TodayActivity> response = ApiResponse.success("Today's activity retrieved successfully", todayActivity);
             return new ResponseEntity<>(response, HttpStatus.OK);
@@ -415,6 +433,7 @@ public ResponseEntity<ApiResponse<OutpassResponse>> markReturn(
             }
             
             Outpass savedOutpass = outpassRepository.save(outpass);
+            statusCounters.recordTransition(savedOutpass.getHostelName(), null, OutpassStatus.APPROVED);
             
             System.out.println("✅ Test approved outpass created with ID: " + savedOutpass.getId());
             
@@ -502,8 +521,11 @@ public ResponseEntity<ApiResponse<OutpassResponse>> markReturn(
         private int completedToday;
         private int lateReturns;
         private List<OutpassResponse> pendingDepartures;
+        private String pendingDeparturesNextCursor;
         private List<OutpassResponse> pendingReturns;
+        private String pendingReturnsNextCursor;
         private List<OutpassResponse> recentActivity;
+        private List<OutpassResponse> overdueStudents;
         
         // Getters and Setters
         public int getApprovedOutpasses() { return approvedOutpasses; }
@@ -521,11 +543,20 @@ public ResponseEntity<ApiResponse<OutpassResponse>> markReturn(
         public List<OutpassResponse> getPendingDepartures() { return pendingDepartures; }
         public void setPendingDepartures(List<OutpassResponse> pendingDepartures) { this.pendingDepartures = pendingDepartures; }
         
+        public String getPendingDeparturesNextCursor() { return pendingDeparturesNextCursor; }
+        public void setPendingDeparturesNextCursor(String pendingDeparturesNextCursor) { this.pendingDeparturesNextCursor = pendingDeparturesNextCursor; }
+        
         public List<OutpassResponse> getPendingReturns() { return pendingReturns; }
         public void setPendingReturns(List<OutpassResponse> pendingReturns) { this.pendingReturns = pendingReturns; }
         
+        public String getPendingReturnsNextCursor() { return pendingReturnsNextCursor; }
+        public void setPendingReturnsNextCursor(String pendingReturnsNextCursor) { this.pendingReturnsNextCursor = pendingReturnsNextCursor; }
+        
         public List<OutpassResponse> getRecentActivity() { return recentActivity; }
         public void setRecentActivity(List<OutpassResponse> recentActivity) { this.recentActivity = recentActivity; }
+        
+        public List<OutpassResponse> getOverdueStudents() { return overdueStudents; }
+        public void setOverdueStudents(List<OutpassResponse> overdueStudents) { this.overdueStudents = overdueStudents; }
     }
     
     /**
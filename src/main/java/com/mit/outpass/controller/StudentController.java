@@ -3,6 +3,7 @@ package com.mit.outpass.controller;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -14,9 +15,13 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.mit.outpass.config.AuthenticatedUser;
+import com.mit.outpass.config.CurrentUser;
 import com.mit.outpass.dto.ApiResponse;
+import com.mit.outpass.dto.CursorPage;
 import com.mit.outpass.dto.OutpassRequest;
 import com.mit.outpass.dto.OutpassResponse;
 import com.mit.outpass.entity.Student;
@@ -44,19 +49,17 @@ public class StudentController {
      */
     @PostMapping("/outpass")
     public ResponseEntity<ApiResponse<OutpassResponse>> applyOutpass(
-            @RequestHeader("Authorization") String token,
+            @CurrentUser AuthenticatedUser currentUser,
             @Valid @RequestBody OutpassRequest request) {
         try {
-            // Remove "Bearer " prefix
-            if (token.startsWith("Bearer ")) {
-                token = token.substring(7);
-            }
-            
-            Long studentId = authService.getUserIdFromToken(token);
+            Long studentId = currentUser.getUserId();
             OutpassResponse outpass = outpassService.applyOutpass(studentId, request);
             
             ApiResponse<OutpassResponse> response = ApiResponse.success("Outpass application submitted successfully", outpass);
             return new ResponseEntity<>(response, HttpStatus.CREATED);
+        } catch (DataIntegrityViolationException e) {
+            // Already has a live outpass: GlobalExceptionHandler answers 409
+            throw e;
         } catch (Exception e) {
             ApiResponse<OutpassResponse> response = ApiResponse.error(e.getMessage());
             return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
@@ -68,16 +71,11 @@ public class StudentController {
      */
     @PutMapping("/outpass/{id}")
     public ResponseEntity<ApiResponse<OutpassResponse>> editOutpass(
-            @RequestHeader("Authorization") String token,
+            @CurrentUser AuthenticatedUser currentUser,
             @PathVariable Long id,
             @Valid @RequestBody OutpassRequest request) {
         try {
-            // Remove "Bearer " prefix
-            if (token.startsWith("Bearer ")) {
-                token = token.substring(7);
-            }
-            
-            Long studentId = authService.getUserIdFromToken(token);
+            Long studentId = currentUser.getUserId();
             OutpassResponse outpass = outpassService.editOutpass(id, studentId, request);
             
             ApiResponse<OutpassResponse> response = ApiResponse.success("Outpass updated successfully", outpass);
@@ -93,15 +91,10 @@ public class StudentController {
      */
     @DeleteMapping("/outpass/{id}")
     public ResponseEntity<ApiResponse<String>> cancelOutpass(
-            @RequestHeader("Authorization") String token,
+            @CurrentUser AuthenticatedUser currentUser,
             @PathVariable Long id) {
         try {
-            // Remove "Bearer " prefix
-            if (token.startsWith("Bearer ")) {
-                token = token.substring(7);
-            }
-            
-            Long studentId = authService.getUserIdFromToken(token);
+            Long studentId = currentUser.getUserId();
             outpassService.cancelOutpass(id, studentId);
             
             ApiResponse<String> response = ApiResponse.success("Outpass cancelled successfully");
@@ -117,17 +110,14 @@ public class StudentController {
      */
     @GetMapping("/outpasses")
     public ResponseEntity<ApiResponse<List<OutpassResponse>>> getMyOutpasses(
-            @RequestHeader("Authorization") String token) {
+            @CurrentUser AuthenticatedUser currentUser,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         try {
-            // Remove "Bearer " prefix
-            if (token.startsWith("Bearer ")) {
-                token = token.substring(7);
-            }
-            
-            Long studentId = authService.getUserIdFromToken(token);
-            List<OutpassResponse> outpasses = outpassService.getStudentOutpasses(studentId);
+            Long studentId = currentUser.getUserId();
+            CursorPage<OutpassResponse> page = outpassService.getStudentOutpassesPage(studentId, cursor, size);
             
-            ApiResponse<List<OutpassResponse>> response = ApiResponse.success("Outpasses retrieved successfully", outpasses);
+            ApiResponse<List<OutpassResponse>> response = ApiResponse.page("Outpasses retrieved successfully", page);
             return new ResponseEntity<>(response, HttpStatus.OK);
         } catch (Exception e) {
             ApiResponse<List<OutpassResponse>> response = ApiResponse.error(e.getMessage());
@@ -140,19 +130,14 @@ public class StudentController {
      */
     @GetMapping("/outpass/{id}")
     public ResponseEntity<ApiResponse<OutpassResponse>> getOutpass(
-            @RequestHeader("Authorization") String token,
+            @CurrentUser AuthenticatedUser currentUser,
             @PathVariable Long id) {
         try {
-            // Remove "Bearer " prefix
-            if (token.startsWith("Bearer ")) {
-                token = token.substring(7);
-            }
-            
-            Long studentId = authService.getUserIdFromToken(token);
+            Long studentId = currentUser.getUserId();
             OutpassResponse outpass = outpassService.getOutpassById(id);
             
             // Verify ownership
-            if (!outpass.getStudentRollNumber().equals(authService.getAuthenticatedUser(token).getUsername())) {
+            if (!outpass.getStudentRollNumber().equals(currentUser.getUsername())) {
                 throw new IllegalArgumentException("You can only view your own outpass");
             }
             
@@ -169,24 +154,9 @@ public class StudentController {
      */
     @GetMapping("/dashboard")
     public ResponseEntity<ApiResponse<DashboardData>> getDashboard(
-            @RequestHeader("Authorization") String token) {
+            @CurrentUser AuthenticatedUser currentUser) {
         try {
-            // Remove "Bearer " prefix
-            if (token.startsWith("Bearer ")) {
-                token = token.substring(7);
-            }
-            
-            Long studentId = authService.getUserIdFromToken(token);
-            List<OutpassResponse> outpasses = outpassService.getStudentOutpasses(studentId);
-            
-            DashboardData dashboardData = new DashboardData();
-            dashboardData.setTotalOutpasses(outpasses.size());
-            dashboardData.setPendingOutpasses((int) outpasses.stream().filter(o -> o.getStatus().name().equals("PENDING")).count());
-            dashboardData.setApprovedOutpasses((int) outpasses.stream().filter(o -> o.getStatus().name().equals("APPROVED")).count());
-            dashboardData.setActiveOutpasses((int) outpasses.stream().filter(o -> o.getStatus().name().equals("ACTIVE")).count());
-            dashboardData.setCompletedOutpasses((int) outpasses.stream().filter(o -> o.getStatus().name().equals("COMPLETED")).count());
-            dashboardData.setRejectedOutpasses((int) outpasses.stream().filter(o -> o.getStatus().name().equals("REJECTED")).count());
-            dashboardData.setRecentOutpasses(outpasses.stream().limit(5).toList());
+            DashboardData dashboardData = outpassService.getStudentDashboard(currentUser.getUserId());
             
             ApiResponse<DashboardData> response = ApiResponse.success("Dashboard data retrieved successfully", dashboardData);
             return new ResponseEntity<>(response, HttpStatus.OK);
@@ -236,13 +206,9 @@ public class StudentController {
      */
     @GetMapping("/profile")
     public ResponseEntity<ApiResponse<com.mit.outpass.dto.StudentProfileDto>> getProfile(
-            @RequestHeader("Authorization") String token) {
+            @CurrentUser AuthenticatedUser currentUser) {
         try {
-            if (token.startsWith("Bearer ")) {
-                token = token.substring(7);
-            }
-
-            Student student = authService.getAuthenticatedStudent(token);
+            Student student = authService.getAuthenticatedStudent(currentUser);
 
             // Map Student entity to DTO to avoid serializing relationships (prevent infinite recursion)
             com.mit.outpass.dto.StudentProfileDto dto = new com.mit.outpass.dto.StudentProfileDto();
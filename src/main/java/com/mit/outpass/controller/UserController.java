@@ -1,8 +1,9 @@
 package com.mit.outpass.controller;
 
+import com.mit.outpass.config.AuthenticatedUser;
+import com.mit.outpass.config.CurrentUser;
 import com.mit.outpass.dto.ApiResponse;
 import com.mit.outpass.dto.UserDTO;
-import com.mit.outpass.entity.User;
 import com.mit.outpass.service.AuthService;
 import com.mit.outpass.service.UserService;
 import io.jsonwebtoken.Claims;
@@ -31,16 +32,9 @@ public class UserController {
      */
     @GetMapping("/profile")
     public ResponseEntity<ApiResponse<UserDTO>> getCurrentUserProfile(
-            @RequestHeader("Authorization") String token) {
+            @CurrentUser AuthenticatedUser currentUser) {
         try {
-            // Remove "Bearer " prefix
-            if (token.startsWith("Bearer ")) {
-                token = token.substring(7);
-            }
-            
-            // Get authenticated user from token
-            User user = authService.getAuthenticatedUser(token);
-            UserDTO userProfile = userService.getUserProfile(user.getId());
+            UserDTO userProfile = userService.getUserProfile(currentUser.getUserId());
             
             ApiResponse<UserDTO> response = ApiResponse.success("Profile fetched successfully", userProfile);
             return new ResponseEntity<>(response, HttpStatus.OK);
@@ -55,19 +49,11 @@ public class UserController {
      */
     @PutMapping("/profile")
     public ResponseEntity<ApiResponse<UserDTO>> updateCurrentUserProfile(
-            @RequestHeader("Authorization") String token,
+            @CurrentUser AuthenticatedUser currentUser,
             @Valid @RequestBody UserProfileUpdateRequest updateRequest) {
         try {
-            // Remove "Bearer " prefix
-            if (token.startsWith("Bearer ")) {
-                token = token.substring(7);
-            }
-            
-            // Get authenticated user from token
-            User user = authService.getAuthenticatedUser(token);
-            
             // Users can only update their own profile
-            UserDTO updatedUser = userService.updateUserProfile(user.getId(), updateRequest);
+            UserDTO updatedUser = userService.updateUserProfile(currentUser.getUserId(), updateRequest);
             
             ApiResponse<UserDTO> response = ApiResponse.success("Profile updated successfully", updatedUser);
             return new ResponseEntity<>(response, HttpStatus.OK);
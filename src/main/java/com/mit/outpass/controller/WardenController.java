@@ -1,19 +1,38 @@
 package com.mit.outpass.controller;
 
+import com.mit.outpass.config.AuthenticatedUser;
+import com.mit.outpass.config.CurrentUser;
+import com.mit.outpass.config.LiveFeedTicketStore;
 import com.mit.outpass.dto.ApiResponse;
+import com.mit.outpass.dto.BulkReviewRequest;
+import com.mit.outpass.dto.BulkReviewResult;
+import com.mit.outpass.dto.CursorPage;
 import com.mit.outpass.dto.OutpassResponse;
 import com.mit.outpass.dto.ReviewRequest;
 import com.mit.outpass.entity.Warden;
 import com.mit.outpass.enums.OutpassStatus;
+import com.mit.outpass.enums.UserRole;
 import com.mit.outpass.service.AuthService;
+import com.mit.outpass.service.OutpassExportService;
+import com.mit.outpass.service.OutpassLiveFeed;
 import com.mit.outpass.service.OutpassService;
 import com.mit.outpass.service.WardenService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -25,6 +44,8 @@ import java.util.Map;
 @CrossOrigin(origins = "*", maxAge = 3600)
 public class WardenController {
     
+    private static final Logger log = LoggerFactory.getLogger(WardenController.class);
+    
     @Autowired
     private OutpassService outpassService;
     
@@ -34,32 +55,33 @@ public class WardenController {
     @Autowired
     private AuthService authService;
     
+    @Autowired
+    private OutpassLiveFeed outpassLiveFeed;
+    
+    @Autowired
+    private OutpassExportService outpassExportService;
+    
+    @Autowired
+    private LiveFeedTicketStore liveFeedTicketStore;
+    
     /**
      * Get outpasses with hostel filtering and status filtering
      */
     @GetMapping("/outpasses")
     public ResponseEntity<ApiResponse<List<OutpassResponse>>> getOutpasses(
-            @RequestHeader("Authorization") String token,
-            @RequestParam(required = false) String status) {
+            @CurrentUser AuthenticatedUser currentUser,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         try {
-            // Remove "Bearer " prefix and get warden info
-            if (token.startsWith("Bearer ")) {
-                token = token.substring(7);
-            }
-            
-            Long wardenId = authService.getUserIdFromToken(token);
+            Long wardenId = currentUser.getUserId();
             String hostelName = wardenService.getWardenHostel(wardenId);
             
-            System.out.println("🏠 Warden " + wardenId + " accessing outpasses for hostel: " + hostelName + " with status: " + status);
+            log.debug("Warden {} accessing outpasses for hostel {} with status {}", wardenId, hostelName, status);
             
-            List<OutpassResponse> outpasses;
-            if (status != null && !status.isEmpty()) {
-                outpasses = wardenService.getOutpassesByHostelAndStatus(hostelName, status);
-            } else {
-                outpasses = wardenService.getAllOutpassesByHostel(hostelName);
-            }
+            CursorPage<OutpassResponse> page = wardenService.getOutpassesByHostelAndStatusPage(hostelName, status, cursor, size);
             
-            ApiResponse<List<OutpassResponse>> response = ApiResponse.success("Outpasses retrieved successfully", outpasses);
+            ApiResponse<List<OutpassResponse>> response = ApiResponse.page("Outpasses retrieved successfully", page);
             return new ResponseEntity<>(response, HttpStatus.OK);
         } catch (Exception e) {
             ApiResponse<List<OutpassResponse>> response = ApiResponse.error(e.getMessage());
@@ -72,17 +94,15 @@ public class WardenController {
      */
     @GetMapping("/outpasses/pending")
     public ResponseEntity<ApiResponse<List<OutpassResponse>>> getPendingOutpasses(
-            @RequestHeader("Authorization") String token) {
+            @CurrentUser AuthenticatedUser currentUser,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         try {
-            if (token.startsWith("Bearer ")) {
-                token = token.substring(7);
-            }
-            
-            Long wardenId = authService.getUserIdFromToken(token);
+            Long wardenId = currentUser.getUserId();
             String hostelName = wardenService.getWardenHostel(wardenId);
             
-            List<OutpassResponse> outpasses = wardenService.getPendingOutpassesByHostel(hostelName);
-            ApiResponse<List<OutpassResponse>> response = ApiResponse.success("Pending outpasses retrieved successfully", outpasses);
+            CursorPage<OutpassResponse> page = wardenService.getOutpassesByHostelAndStatusPage(hostelName, "PENDING", cursor, size);
+            ApiResponse<List<OutpassResponse>> response = ApiResponse.page("Pending outpasses retrieved successfully", page);
             return new ResponseEntity<>(response, HttpStatus.OK);
         } catch (Exception e) {
             ApiResponse<List<OutpassResponse>> response = ApiResponse.error(e.getMessage());
@@ -95,17 +115,15 @@ public class WardenController {
      */
     @GetMapping("/outpasses/approved")
     public ResponseEntity<ApiResponse<List<OutpassResponse>>> getApprovedOutpasses(
-            @RequestHeader("Authorization") String token) {
+            @CurrentUser AuthenticatedUser currentUser,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         try {
-            if (token.startsWith("Bearer ")) {
-                token = token.substring(7);
-            }
-            
-            Long wardenId = authService.getUserIdFromToken(token);
+            Long wardenId = currentUser.getUserId();
             String hostelName = wardenService.getWardenHostel(wardenId);
             
-            List<OutpassResponse> outpasses = wardenService.getApprovedOutpassesByHostel(hostelName);
-            ApiResponse<List<OutpassResponse>> response = ApiResponse.success("Approved outpasses retrieved successfully", outpasses);
+            CursorPage<OutpassResponse> page = wardenService.getOutpassesByHostelAndStatusPage(hostelName, "APPROVED", cursor, size);
+            ApiResponse<List<OutpassResponse>> response = ApiResponse.page("Approved outpasses retrieved successfully", page);
             return new ResponseEntity<>(response, HttpStatus.OK);
         } catch (Exception e) {
             ApiResponse<List<OutpassResponse>> response = ApiResponse.error(e.getMessage());
@@ -118,17 +136,15 @@ public class WardenController {
      */
     @GetMapping("/outpasses/active")
     public ResponseEntity<ApiResponse<List<OutpassResponse>>> getActiveOutpasses(
-            @RequestHeader("Authorization") String token) {
+            @CurrentUser AuthenticatedUser currentUser,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         try {
-            if (token.startsWith("Bearer ")) {
-                token = token.substring(7);
-            }
-            
-            Long wardenId = authService.getUserIdFromToken(token);
+            Long wardenId = currentUser.getUserId();
             String hostelName = wardenService.getWardenHostel(wardenId);
             
-            List<OutpassResponse> outpasses = wardenService.getActiveOutpassesByHostel(hostelName);
-            ApiResponse<List<OutpassResponse>> response = ApiResponse.success("Active outpasses retrieved successfully", outpasses);
+            CursorPage<OutpassResponse> page = wardenService.getOutpassesByHostelAndStatusPage(hostelName, "ACTIVE", cursor, size);
+            ApiResponse<List<OutpassResponse>> response = ApiResponse.page("Active outpasses retrieved successfully", page);
             return new ResponseEntity<>(response, HttpStatus.OK);
         } catch (Exception e) {
             ApiResponse<List<OutpassResponse>> response = ApiResponse.error(e.getMessage());
@@ -141,15 +157,11 @@ public class WardenController {
      */
     @PutMapping("/outpass/{id}/review")
     public ResponseEntity<ApiResponse<OutpassResponse>> reviewOutpass(
-            @RequestHeader("Authorization") String token,
+            @CurrentUser AuthenticatedUser currentUser,
             @PathVariable Long id,
             @Valid @RequestBody ReviewRequest reviewRequest) {
         try {
-            if (token.startsWith("Bearer ")) {
-                token = token.substring(7);
-            }
-            
-            Long wardenId = authService.getUserIdFromToken(token);
+            Long wardenId = currentUser.getUserId();
             
             // Check if warden can review this outpass
             if (!wardenService.canWardenReviewOutpass(wardenId, id)) {
@@ -168,20 +180,46 @@ public class WardenController {
         }
     }
     
+    /**
+     * Approve or reject up to 500 pending outpasses of the warden's hostel in one request.
+     * Returns a result per id; ids that could not be reviewed do not fail the rest.
+     */
+    @PutMapping("/outpasses/review")
+    public ResponseEntity<ApiResponse<List<BulkReviewResult>>> reviewOutpasses(
+            @CurrentUser AuthenticatedUser currentUser,
+            @Valid @RequestBody BulkReviewRequest reviewRequest) {
+        try {
+            Long wardenId = currentUser.getUserId();
+            String hostelName = wardenService.getWardenHostel(wardenId);
+            if (hostelName == null) {
+                ApiResponse<List<BulkReviewResult>> response = ApiResponse.error("No hostel assigned to this warden");
+                return new ResponseEntity<>(response, HttpStatus.FORBIDDEN);
+            }
+            
+            List<BulkReviewResult> results = outpassService.reviewOutpasses(reviewRequest.getOutpassIds(), wardenId,
+                    hostelName, reviewRequest.getApproved(), reviewRequest.getComments());
+            
+            long reviewed = results.stream().filter(BulkReviewResult::isSuccess).count();
+            String action = reviewRequest.getApproved() ? "approved" : "rejected";
+            ApiResponse<List<BulkReviewResult>> response = ApiResponse.success(
+                    reviewed + " of " + results.size() + " outpasses " + action, results);
+            return new ResponseEntity<>(response, HttpStatus.OK);
+        } catch (Exception e) {
+            ApiResponse<List<BulkReviewResult>> response = ApiResponse.error(e.getMessage());
+            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+        }
+    }
+    
     /**
      * Approve outpass with hostel validation
      */
     @PutMapping("/outpass/{id}/approve")
     public ResponseEntity<ApiResponse<OutpassResponse>> approveOutpass(
-            @RequestHeader("Authorization") String token,
+            @CurrentUser AuthenticatedUser currentUser,
             @PathVariable Long id,
             @Valid @RequestBody ReviewRequest reviewRequest) {
         try {
-            if (token.startsWith("Bearer ")) {
-                token = token.substring(7);
-            }
-            
-            Long wardenId = authService.getUserIdFromToken(token);
+            Long wardenId = currentUser.getUserId();
             
             // Check if warden can review this outpass
             if (!wardenService.canWardenReviewOutpass(wardenId, id)) {
@@ -204,15 +242,11 @@ public class WardenController {
      */
     @PutMapping("/outpass/{id}/reject")
     public ResponseEntity<ApiResponse<OutpassResponse>> rejectOutpass(
-            @RequestHeader("Authorization") String token,
+            @CurrentUser AuthenticatedUser currentUser,
             @PathVariable Long id,
             @Valid @RequestBody ReviewRequest reviewRequest) {
         try {
-            if (token.startsWith("Bearer ")) {
-                token = token.substring(7);
-            }
-            
-            Long wardenId = authService.getUserIdFromToken(token);
+            Long wardenId = currentUser.getUserId();
             
             // Check if warden can review this outpass
             if (!wardenService.canWardenReviewOutpass(wardenId, id)) {
@@ -235,14 +269,10 @@ public class WardenController {
      */
     @GetMapping("/outpass/{id}")
     public ResponseEntity<ApiResponse<OutpassResponse>> getOutpass(
-            @RequestHeader("Authorization") String token,
+            @CurrentUser AuthenticatedUser currentUser,
             @PathVariable Long id) {
         try {
-            if (token.startsWith("Bearer ")) {
-                token = token.substring(7);
-            }
-            
-            Long wardenId = authService.getUserIdFromToken(token);
+            Long wardenId = currentUser.getUserId();
             String wardenHostel = wardenService.getWardenHostel(wardenId);
             
             OutpassResponse outpass = outpassService.getOutpassById(id);
@@ -266,13 +296,9 @@ public class WardenController {
      */
     @GetMapping("/dashboard")
     public ResponseEntity<ApiResponse<Map<String, Object>>> getDashboard(
-            @RequestHeader("Authorization") String token) {
+            @CurrentUser AuthenticatedUser currentUser) {
         try {
-            if (token.startsWith("Bearer ")) {
-                token = token.substring(7);
-            }
-            
-            Long wardenId = authService.getUserIdFromToken(token);
+            Long wardenId = currentUser.getUserId();
             String hostelName = wardenService.getWardenHostel(wardenId);
             
             Map<String, Object> dashboardData = wardenService.getDetailedStatistics(hostelName);
@@ -285,18 +311,72 @@ public class WardenController {
         }
     }
     
+    /**
+     * Single-use ticket for opening /live, valid for a few seconds. Fetch a new one before each (re)connect.
+     */
+    @PostMapping("/live/ticket")
+    public ResponseEntity<ApiResponse<Map<String, String>>> getLiveFeedTicket(@CurrentUser AuthenticatedUser currentUser) {
+        if (currentUser.getRole() != UserRole.WARDEN) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        String ticket = liveFeedTicketStore.issue(currentUser);
+        return ResponseEntity.ok(ApiResponse.success("Live feed ticket issued", Map.of("ticket", ticket)));
+    }
+    
+    /**
+     * Live feed (Server-Sent Events) of status changes in the warden's hostel.
+     * EventSource cannot send headers, so a ticket from /live/ticket is accepted as ?ticket= here.
+     */
+    @GetMapping(value = "/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> getLiveFeed(@CurrentUser AuthenticatedUser currentUser) {
+        if (currentUser.getRole() != UserRole.WARDEN) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        String hostelName = wardenService.getWardenHostel(currentUser.getUserId());
+        if (hostelName == null) {
+            // An unassigned warden must not fall through to the all-hostels feed
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(outpassLiveFeed.subscribe(hostelName));
+    }
+    
+    /**
+     * Stream the warden's hostel outpass history as CSV or NDJSON, optionally by creation date range [from, to) and status
+     */
+    @GetMapping("/outpasses/export")
+    public void exportOutpasses(
+            @CurrentUser AuthenticatedUser currentUser,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) OutpassStatus status,
+            HttpServletResponse response) throws IOException {
+        // Failures below are rendered by GlobalExceptionHandler, so they must happen before the body is written
+        if (currentUser.getRole() != UserRole.WARDEN) {
+            throw new AccessDeniedException("Only wardens can export hostel outpasses");
+        }
+        String hostelName = wardenService.getWardenHostel(currentUser.getUserId());
+        if (hostelName == null) {
+            // An unassigned warden must not fall through to an all-hostels export
+            throw new AccessDeniedException("No hostel assigned to this warden");
+        }
+        OutpassExportService.Format exportFormat = OutpassExportService.Format.of(format);
+        OutpassExportService.checkRange(from, to);
+        
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"outpasses." + exportFormat.getExtension() + "\"");
+        outpassExportService.export(from, to, hostelName, status, exportFormat, response.getOutputStream());
+    }
+    
     /**
      * Get basic statistics for warden's hostel
      */
     @GetMapping("/stats")
     public ResponseEntity<ApiResponse<Map<String, Long>>> getStats(
-            @RequestHeader("Authorization") String token) {
+            @CurrentUser AuthenticatedUser currentUser) {
         try {
-            if (token.startsWith("Bearer ")) {
-                token = token.substring(7);
-            }
-            
-            Long wardenId = authService.getUserIdFromToken(token);
+            Long wardenId = currentUser.getUserId();
             String hostelName = wardenService.getWardenHostel(wardenId);
             
             Map<String, Long> stats = wardenService.getWardenStats(hostelName);
@@ -314,13 +394,9 @@ public class WardenController {
      */
     @GetMapping("/profile")
     public ResponseEntity<ApiResponse<Warden>> getProfile(
-            @RequestHeader("Authorization") String token) {
+            @CurrentUser AuthenticatedUser currentUser) {
         try {
-            if (token.startsWith("Bearer ")) {
-                token = token.substring(7);
-            }
-            
-            Long wardenId = authService.getUserIdFromToken(token);
+            Long wardenId = currentUser.getUserId();
             Warden warden = wardenService.getWardenById(wardenId);
             
             ApiResponse<Warden> response = ApiResponse.success("Profile retrieved successfully", warden);
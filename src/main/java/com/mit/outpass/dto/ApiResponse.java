@@ -1,6 +1,9 @@
 package com.mit.outpass.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.time.LocalDateTime;
+import java.util.List;
 
 public class ApiResponse<T> {
     private boolean success;
@@ -8,6 +11,10 @@ public class ApiResponse<T> {
     private T data;
     private LocalDateTime timestamp;
     
+    // Opaque keyset cursor for the next page of a listing (absent on the last page)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+    
     public ApiResponse() {
         this.timestamp = LocalDateTime.now();
     }
@@ -32,6 +39,12 @@ public class ApiResponse<T> {
         return new ApiResponse<>(true, message, data);
     }
     
+    public static <T> ApiResponse<List<T>> page(String message, CursorPage<T> page) {
+        ApiResponse<List<T>> response = new ApiResponse<>(true, message, page.getItems());
+        response.setNextCursor(page.getNextCursor());
+        return response;
+    }
+    
     public static <T> ApiResponse<T> error(String message) {
         return new ApiResponse<>(false, message);
     }
@@ -48,4 +61,7 @@ public class ApiResponse<T> {
     
     public LocalDateTime getTimestamp() { return timestamp; }
     public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
+    
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
 }
\ No newline at end of file
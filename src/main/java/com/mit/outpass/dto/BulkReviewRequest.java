@@ -0,0 +1,35 @@
+// BulkReviewRequest.java
+package com.mit.outpass.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class BulkReviewRequest {
+    public static final int MAX_OUTPASSES = 500;
+
+    @NotEmpty(message = "At least one outpass id is required")
+    @Size(max = MAX_OUTPASSES, message = "At most " + MAX_OUTPASSES + " outpasses can be reviewed at once")
+    private List<Long> outpassIds;
+
+    @NotNull(message = "Approval status is required")
+    private Boolean approved;
+
+    @NotBlank(message = "Comments are required")
+    private String comments;
+
+    public BulkReviewRequest() {}
+
+    // Getters and Setters
+    public List<Long> getOutpassIds() { return outpassIds; }
+    public void setOutpassIds(List<Long> outpassIds) { this.outpassIds = outpassIds; }
+
+    public Boolean getApproved() { return approved; }
+    public void setApproved(Boolean approved) { this.approved = approved; }
+
+    public String getComments() { return comments; }
+    public void setComments(String comments) { this.comments = comments; }
+}
@@ -0,0 +1,36 @@
+// BulkReviewResult.java
+package com.mit.outpass.dto;
+
+import com.mit.outpass.enums.OutpassStatus;
+
+/**
+ * Outcome for one id of a bulk review: the new status on success, otherwise why it was skipped
+ */
+public class BulkReviewResult {
+    private Long outpassId;
+    private boolean success;
+    private OutpassStatus status;
+    private String message;
+
+    public BulkReviewResult() {}
+
+    public BulkReviewResult(Long outpassId, boolean success, OutpassStatus status, String message) {
+        this.outpassId = outpassId;
+        this.success = success;
+        this.status = status;
+        this.message = message;
+    }
+
+    // Getters and Setters
+    public Long getOutpassId() { return outpassId; }
+    public void setOutpassId(Long outpassId) { this.outpassId = outpassId; }
+
+    public boolean isSuccess() { return success; }
+    public void setSuccess(boolean success) { this.success = success; }
+
+    public OutpassStatus getStatus() { return status; }
+    public void setStatus(OutpassStatus status) { this.status = status; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+}
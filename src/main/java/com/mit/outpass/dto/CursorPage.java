@@ -0,0 +1,103 @@
+package com.mit.outpass.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing plus the opaque cursor for the next page
+ */
+public class CursorPage<T> {
+
+    public static final int DEFAULT_SIZE = 50;
+    public static final int MAX_SIZE = 200;
+
+    // Sentinels used when no cursor is supplied (first page)
+    private static final LocalDateTime LOWEST_TIME = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime HIGHEST_TIME = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Build a page from rows fetched with a limit of {@code size + 1}; the extra row only signals that more exist
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size,
+                                       Function<T, LocalDateTime> sortKey, Function<T, Long> id) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, size);
+        T last = items.get(size - 1);
+        return new CursorPage<>(items, encode(sortKey.apply(last), id.apply(last)));
+    }
+
+    /**
+     * Clamp a requested page size to [1, MAX_SIZE]
+     */
+    public static int clampSize(Integer size) {
+        if (size == null || size < 1) {
+            return DEFAULT_SIZE;
+        }
+        return Math.min(size, MAX_SIZE);
+    }
+
+    public static String encode(LocalDateTime sortKey, Long id) {
+        String raw = sortKey + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor for an ascending listing; a missing cursor starts from the beginning
+     */
+    public static Key ascending(String cursor) {
+        return cursor == null || cursor.isBlank() ? new Key(LOWEST_TIME, 0L) : decode(cursor);
+    }
+
+    /**
+     * Decode a cursor for a descending listing; a missing cursor starts from the newest row
+     */
+    public static Key descending(String cursor) {
+        return cursor == null || cursor.isBlank() ? new Key(HIGHEST_TIME, Long.MAX_VALUE) : decode(cursor);
+    }
+
+    private static Key decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new Key(LocalDateTime.parse(raw.substring(0, separator)),
+                           Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+    }
+
+    public List<T> getItems() { return items; }
+
+    public String getNextCursor() { return nextCursor; }
+
+    /**
+     * Decoded seek position: (sort timestamp, id) of the last row already returned
+     */
+    public static class Key {
+        private final LocalDateTime time;
+        private final Long id;
+
+        public Key(LocalDateTime time, Long id) {
+            this.time = time;
+            this.id = id;
+        }
+
+        public LocalDateTime getTime() { return time; }
+
+        public Long getId() { return id; }
+    }
+}
@@ -26,6 +26,36 @@ public class OutpassResponse {
     private String lateReturnReason;
     public OutpassResponse() {}
     
+    // Used by the JPQL constructor-expression projections in OutpassRepository
+    public OutpassResponse(Long id, String studentName, String studentRollNumber, String hostelName,
+                           String reason, LocalDateTime leaveStartDate, LocalDateTime expectedReturnDate,
+                           String destination, OutpassStatus status, String wardenComments,
+                           String securityComments, LocalDateTime createdAt, LocalDateTime actualDepartureTime,
+                           LocalDateTime actualReturnTime, Boolean isLateReturn, String emergencyContactName,
+                           String emergencyContactNumber, String emergencyContactRelation,
+                           String reviewedByName, String lateReturnReason) {
+        this.id = id;
+        this.studentName = studentName;
+        this.studentRollNumber = studentRollNumber;
+        this.hostelName = hostelName;
+        this.reason = reason;
+        this.leaveStartDate = leaveStartDate;
+        this.expectedReturnDate = expectedReturnDate;
+        this.destination = destination;
+        this.status = status;
+        this.wardenComments = wardenComments;
+        this.securityComments = securityComments;
+        this.createdAt = createdAt;
+        this.actualDepartureTime = actualDepartureTime;
+        this.actualReturnTime = actualReturnTime;
+        this.isLateReturn = isLateReturn;
+        this.emergencyContactName = emergencyContactName;
+        this.emergencyContactNumber = emergencyContactNumber;
+        this.emergencyContactRelation = emergencyContactRelation;
+        this.reviewedByName = reviewedByName;
+        this.lateReturnReason = lateReturnReason;
+    }
+    
     // Getters and Setters for all fields
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
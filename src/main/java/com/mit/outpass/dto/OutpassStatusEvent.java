@@ -0,0 +1,47 @@
+package com.mit.outpass.dto;
+
+import com.mit.outpass.enums.OutpassStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by OutpassService on every status transition and pushed to live gate/warden feeds.
+ * previousStatus is null for a new application.
+ */
+public class OutpassStatusEvent {
+
+    private final Long outpassId;
+    private final Long studentId;
+    private final String hostelName;
+    private final OutpassStatus previousStatus;
+    private final OutpassStatus status;
+    private final LocalDateTime occurredAt;
+
+    public OutpassStatusEvent(Long outpassId, Long studentId, String hostelName,
+                              OutpassStatus previousStatus, OutpassStatus status) {
+        this.outpassId = outpassId;
+        this.studentId = studentId;
+        this.hostelName = hostelName;
+        this.previousStatus = previousStatus;
+        this.status = status;
+        this.occurredAt = LocalDateTime.now();
+    }
+
+    public Long getOutpassId() { return outpassId; }
+
+    public Long getStudentId() { return studentId; }
+
+    public String getHostelName() { return hostelName; }
+
+    public OutpassStatus getPreviousStatus() { return previousStatus; }
+
+    public OutpassStatus getStatus() { return status; }
+
+    public LocalDateTime getOccurredAt() { return occurredAt; }
+
+    @Override
+    public String toString() {
+        return "OutpassStatusEvent{outpassId=" + outpassId + ", hostelName='" + hostelName + '\'' +
+                ", " + previousStatus + " -> " + status + '}';
+    }
+}
@@ -0,0 +1,56 @@
+package com.mit.outpass.dto;
+
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * One numbered page of a sortable listing with its totals, for screens that jump between pages
+ */
+public class PageResponse<T> {
+
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+
+    private final List<T> content;
+    private final int page;
+    private final int size;
+    private final long totalElements;
+    private final int totalPages;
+
+    public PageResponse(List<T> content, int page, int size, long totalElements, int totalPages) {
+        this.content = content;
+        this.page = page;
+        this.size = size;
+        this.totalElements = totalElements;
+        this.totalPages = totalPages;
+    }
+
+    /**
+     * Copy the paging details of a query result onto its converted content
+     */
+    public static <T> PageResponse<T> of(Page<?> result, List<T> content) {
+        return new PageResponse<>(content, result.getNumber(), result.getSize(),
+                                  result.getTotalElements(), result.getTotalPages());
+    }
+
+    /**
+     * Clamp a requested page size to [1, MAX_SIZE]
+     */
+    public static int clampSize(Integer size) {
+        if (size == null || size < 1) {
+            return DEFAULT_SIZE;
+        }
+        return Math.min(size, MAX_SIZE);
+    }
+
+    public List<T> getContent() { return content; }
+
+    public int getPage() { return page; }
+
+    public int getSize() { return size; }
+
+    public long getTotalElements() { return totalElements; }
+
+    public int getTotalPages() { return totalPages; }
+}
@@ -0,0 +1,59 @@
+package com.mit.outpass.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Summary of a bulk student import: how many rows were read and imported, plus one error per rejected row
+ */
+public class StudentImportResult {
+
+    private int received;
+    private int imported;
+    private final List<RowError> errors = new ArrayList<>();
+    private String fatalError;
+
+    public void addReceived() { received++; }
+
+    public void addImported(int count) { imported += count; }
+
+    public void addError(int line, String rollNumber, String message) {
+        errors.add(new RowError(line, rollNumber, message));
+    }
+
+    /**
+     * Reading stopped partway through the file; rows before this point were still imported
+     */
+    public void setFatalError(String fatalError) { this.fatalError = fatalError; }
+
+    public int getReceived() { return received; }
+
+    public int getImported() { return imported; }
+
+    public int getFailed() { return errors.size(); }
+
+    public List<RowError> getErrors() { return errors; }
+
+    public String getFatalError() { return fatalError; }
+
+    /**
+     * A rejected row, identified by its line in the uploaded file
+     */
+    public static class RowError {
+        private final int line;
+        private final String rollNumber;
+        private final String message;
+
+        public RowError(int line, String rollNumber, String message) {
+            this.line = line;
+            this.rollNumber = rollNumber;
+            this.message = message;
+        }
+
+        public int getLine() { return line; }
+
+        public String getRollNumber() { return rollNumber; }
+
+        public String getMessage() { return message; }
+    }
+}
@@ -5,9 +5,25 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "outpasses")
+@Table(name = "outpasses", indexes = {
+        // Created by db/migration/V2 and V4; partial indexes on live statuses are only in the migration.
+        // columnList uses logical column names, so indexed fields name their columns explicitly.
+        @Index(name = "idx_outpasses_status_created_at", columnList = "status, created_at, id"),
+        @Index(name = "idx_outpasses_status_leave_start", columnList = "status, leave_start_date, id"),
+        @Index(name = "idx_outpasses_status_departure", columnList = "status, actual_departure_time, id"),
+        @Index(name = "idx_outpasses_student_created_at", columnList = "student_id, created_at DESC, id DESC"),
+        @Index(name = "idx_outpasses_hostel_status_created_at", columnList = "hostel_name, status, created_at, id"),
+        @Index(name = "idx_outpasses_departure_time", columnList = "actual_departure_time"),
+        @Index(name = "idx_outpasses_return_time", columnList = "actual_return_time"),
+        @Index(name = "idx_outpasses_reviewed_by", columnList = "reviewed_by"),
+        @Index(name = "idx_outpasses_departure_marked_by", columnList = "departure_marked_by"),
+        @Index(name = "idx_outpasses_return_marked_by", columnList = "return_marked_by")
+})
 public class Outpass {
 
+    // Partial unique index from db/migration/V8: one PENDING/APPROVED/ACTIVE outpass per student
+    public static final String ONE_LIVE_PER_STUDENT_INDEX = "ux_outpasses_one_live_per_student";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -17,7 +33,12 @@ public class Outpass {
     @JoinColumn(name = "student_id", nullable = false)
     private Student student;
 
-    @Column(nullable = false)
+    // Student's hostel snapshotted at apply time so warden queries stay on this table.
+    // AdminService rewrites it when a student is moved to another hostel.
+    @Column(name = "hostel_name", nullable = false)
+    private String hostelName;
+
+    @Column(name = "leave_start_date", nullable = false)
     private LocalDateTime leaveStartDate;
 
     @Column(nullable = false)
@@ -55,7 +76,10 @@ public class Outpass {
     @JoinColumn(name = "return_marked_by")
     private Security returnMarkedBy;
 
+    @Column(name = "actual_departure_time")
     private LocalDateTime actualDepartureTime;
+
+    @Column(name = "actual_return_time")
     private LocalDateTime actualReturnTime;
 
     private Boolean isLateReturn;
@@ -64,13 +88,18 @@ public class Outpass {
     @Column(name = "late_return_reason", length = 500)
     private String lateReturnReason;
 
-    @Column(nullable = false, updatable = false)
+    @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
     private String destination;
     
     private LocalDateTime reviewedAt;
 
+    // Optimistic lock: concurrent read-modify-write of the same outpass fails instead of overwriting
+    @Version
+    @Column(nullable = false)
+    private Long version = 0L;
+
     // Default Constructor
     public Outpass() {}
 
@@ -78,6 +107,7 @@ public class Outpass {
     public Outpass(Student student, LocalDateTime leaveStartDate, LocalDateTime expectedReturnDate, 
                    String reason, String destination) {
         this.student = student;
+        this.hostelName = student != null ? student.getHostelName() : null;
         this.leaveStartDate = leaveStartDate;
         this.expectedReturnDate = expectedReturnDate;
         this.reason = reason;
@@ -90,6 +120,9 @@ public class Outpass {
         if (createdAt == null) {
             createdAt = LocalDateTime.now();
         }
+        if (hostelName == null && student != null) {
+            hostelName = student.getHostelName();
+        }
     }
 
     // Getters and Setters
@@ -99,6 +132,9 @@ public class Outpass {
     public Student getStudent() { return student; }
     public void setStudent(Student student) { this.student = student; }
 
+    public String getHostelName() { return hostelName; }
+    public void setHostelName(String hostelName) { this.hostelName = hostelName; }
+
     public LocalDateTime getLeaveStartDate() { return leaveStartDate; }
     public void setLeaveStartDate(LocalDateTime leaveStartDate) { this.leaveStartDate = leaveStartDate; }
 
@@ -157,6 +193,9 @@ public class Outpass {
     public LocalDateTime getReviewedAt() { return reviewedAt; }
     public void setReviewedAt(LocalDateTime reviewedAt) { this.reviewedAt = reviewedAt; }
 
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
     /**
      * Utility methods to check if editing or cancelling is allowed
      */
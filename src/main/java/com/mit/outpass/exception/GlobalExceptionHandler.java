@@ -1,6 +1,10 @@
 package com.mit.outpass.exception;
 
 import com.mit.outpass.dto.ApiResponse;
+import com.mit.outpass.entity.Outpass;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -63,6 +67,31 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.FORBIDDEN);
     }
     
+    // Handle unique constraint violations, e.g. a second live outpass for the same student
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ApiResponse<Object>> handleDataIntegrityViolationException(
+            DataIntegrityViolationException ex, WebRequest request) {
+        
+        String message = "Request conflicts with existing data";
+        if (ex.getCause() instanceof ConstraintViolationException violation
+                && Outpass.ONE_LIVE_PER_STUDENT_INDEX.equalsIgnoreCase(violation.getConstraintName())) {
+            message = "You already have a pending, approved or active outpass";
+        }
+        ApiResponse<Object> response = ApiResponse.error(message);
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
+    
+    // Handle saturated worker pools (e.g. password hashing at curfew)
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<ApiResponse<Object>> handleServiceBusyException(
+            ServiceBusyException ex, WebRequest request) {
+        
+        ApiResponse<Object> response = ApiResponse.error(ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response);
+    }
+    
     // Handle illegal argument
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ApiResponse<Object>> handleIllegalArgumentException(
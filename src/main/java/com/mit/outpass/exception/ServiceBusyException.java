@@ -0,0 +1,11 @@
+package com.mit.outpass.exception;
+
+/**
+ * Thrown when a bounded worker pool is saturated; mapped to 503 so clients back off and retry
+ */
+public class ServiceBusyException extends RuntimeException {
+    
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
@@ -2,6 +2,8 @@
 package com.mit.outpass.repository;
 
 import com.mit.outpass.entity.Admin;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -20,6 +22,24 @@ public interface AdminRepository extends JpaRepository<Admin, Long> {
     Optional<Admin> findByAdminId(String adminId);
     Optional<Admin> findByUsername(String username);
     boolean existsByAdminId(String adminId);
+    
+    /**
+     * Admin row of the admin directory
+     */
+    interface AdminRow extends UserRepository.UserRow {
+        String getAdminId();
+        String getDepartment();
+        String getDesignation();
+        String getPermissionLevel();
+    }
+    
+    // Admin directory page; a null filter matches everything. Sort properties are the row aliases.
+    @Query(value = UserRepository.USER_ROW_SELECT + ", u.adminId AS adminId, u.department AS department, " +
+           "u.designation AS designation, u.permissionLevel AS permissionLevel " +
+           "FROM Admin u WHERE (:active IS NULL OR u.isActive = :active)",
+           countQuery = "SELECT COUNT(u) FROM Admin u WHERE (:active IS NULL OR u.isActive = :active)")
+    Page<AdminRow> findDirectory(@Param("active") Boolean active, Pageable pageable);
+    
     @Modifying
 @Query(value = "DELETE FROM admins WHERE user_id = :userId", nativeQuery = true)
 void deleteAdminByIdNative(@Param("userId") Long userId);
@@ -2,20 +2,45 @@
 package com.mit.outpass.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.mit.outpass.dto.OutpassResponse;
 import com.mit.outpass.entity.Outpass;
+import com.mit.outpass.entity.Security;
 import com.mit.outpass.entity.Student;
+import com.mit.outpass.entity.Warden;
 import com.mit.outpass.enums.OutpassStatus;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface OutpassRepository extends JpaRepository<Outpass, Long> {
     
+    // OutpassResponse built in the SELECT: student and reviewer columns come from the same statement
+    String RESPONSE_PROJECTION = "SELECT new com.mit.outpass.dto.OutpassResponse(" +
+           "o.id, s.fullName, s.rollNumber, s.hostelName, o.reason, o.leaveStartDate, o.expectedReturnDate, " +
+           "o.destination, o.status, o.wardenComments, o.securityComments, o.createdAt, " +
+           "o.actualDepartureTime, o.actualReturnTime, o.isLateReturn, o.emergencyContactName, " +
+           "o.emergencyContactNumber, o.emergencyContactRelation, r.fullName, o.lateReturnReason) " +
+           "FROM Outpass o JOIN o.student s LEFT JOIN o.reviewedBy r ";
+    
+    String EXPORT_FETCH_SIZE = "1000";
+    
     // Find outpasses by student
     List<Outpass> findByStudent(Student student);
     
@@ -58,13 +83,83 @@ public interface OutpassRepository extends JpaRepository<Outpass, Long> {
            "(o.status = 'APPROVED' OR o.status = 'ACTIVE') ORDER BY o.expectedReturnDate ASC")
     List<Outpass> findExpiredOutpasses(@Param("currentTime") LocalDateTime currentTime);
     
-    // Find outpasses requiring return today
-    @Query("SELECT o FROM Outpass o WHERE DATE(o.expectedReturnDate) = DATE(:today) AND o.status = 'ACTIVE'")
-    List<Outpass> findOutpassesReturningToday(@Param("today") LocalDateTime today);
+    // Rows of (id, expectedReturnDate) waiting on the expiry scheduler: approved and not used yet
+    @Query("SELECT o.id, o.expectedReturnDate FROM Outpass o WHERE o.status = com.mit.outpass.enums.OutpassStatus.APPROVED")
+    List<Object[]> findApprovedReturnDeadlines();
+    
+    // Approved outpasses past their return time that were never used, locked until the expiry commits.
+    // Locks are taken in id order, like lockAllByIdIn, so overlapping batches cannot deadlock.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Outpass o WHERE o.id IN :ids AND " +
+           "o.status = com.mit.outpass.enums.OutpassStatus.APPROVED AND o.expectedReturnDate < :now ORDER BY o.id")
+    List<Outpass> lockUnusedApprovedOutpasses(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("UPDATE Outpass o SET o.status = com.mit.outpass.enums.OutpassStatus.EXPIRED, o.version = o.version + 1 " +
+           "WHERE o.id IN :ids")
+    int markExpired(@Param("ids") List<Long> ids);
+    
+    // Students currently out past their expected return, most overdue first
+    @Query(RESPONSE_PROJECTION + "WHERE o.status = com.mit.outpass.enums.OutpassStatus.ACTIVE AND " +
+           "o.expectedReturnDate < :now ORDER BY o.expectedReturnDate ASC, o.id ASC")
+    List<OutpassResponse> findOverdueActiveOutpasses(@Param("now") LocalDateTime now, Pageable pageable);
+    
+    // Bulk warden review: lock the requested rows so the eligibility check holds until the update commits.
+    // Rows are locked in id order so two overlapping reviews cannot deadlock.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Outpass o WHERE o.id IN :ids ORDER BY o.id")
+    List<Outpass> lockAllByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // One statement for the whole batch; the status/hostel guard repeats the checks made on the locked rows
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Outpass o SET o.status = :status, o.reviewedBy = :warden, o.wardenComments = :comments, " +
+           "o.reviewedAt = :reviewedAt, o.version = o.version + 1 " +
+           "WHERE o.id IN :ids AND o.status = com.mit.outpass.enums.OutpassStatus.PENDING AND o.hostelName = :hostelName")
+    int reviewPendingInHostel(@Param("ids") Collection<Long> ids, @Param("hostelName") String hostelName,
+                              @Param("status") OutpassStatus status, @Param("warden") Warden warden,
+                              @Param("comments") String comments, @Param("reviewedAt") LocalDateTime reviewedAt);
+    
+    // Gate departure as one guarded statement: of two concurrent scans only the first still sees APPROVED
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Outpass o SET o.status = com.mit.outpass.enums.OutpassStatus.ACTIVE, " +
+           "o.departureMarkedBy = :security, o.actualDepartureTime = :departureTime, " +
+           "o.securityComments = :comments, o.version = o.version + 1 " +
+           "WHERE o.id = :id AND o.status = com.mit.outpass.enums.OutpassStatus.APPROVED")
+    int markDepartureIfApproved(@Param("id") Long id, @Param("security") Security security,
+                                @Param("departureTime") LocalDateTime departureTime,
+                                @Param("comments") String comments);
+    
+    // "Today" queries take a half-open [dayStart, dayEnd) range from CampusClock; wrapping the column
+    // in DATE() would stop PostgreSQL from using the index on it
     
-    // Find outpasses starting today
-    @Query("SELECT o FROM Outpass o WHERE DATE(o.leaveStartDate) = DATE(:today) AND o.status = 'APPROVED'")
-    List<Outpass> findOutpassesStartingToday(@Param("today") LocalDateTime today);
+    // Find outpasses requiring return today (partial index idx_outpasses_live_expected_return)
+    @Query("SELECT o FROM Outpass o WHERE o.expectedReturnDate >= :dayStart AND o.expectedReturnDate < :dayEnd " +
+           "AND o.status = com.mit.outpass.enums.OutpassStatus.ACTIVE")
+    List<Outpass> findOutpassesReturningToday(@Param("dayStart") LocalDateTime dayStart,
+                                              @Param("dayEnd") LocalDateTime dayEnd);
+    
+    // Find outpasses starting today (idx_outpasses_status_leave_start)
+    @Query("SELECT o FROM Outpass o WHERE o.leaveStartDate >= :dayStart AND o.leaveStartDate < :dayEnd " +
+           "AND o.status = com.mit.outpass.enums.OutpassStatus.APPROVED")
+    List<Outpass> findOutpassesStartingToday(@Param("dayStart") LocalDateTime dayStart,
+                                             @Param("dayEnd") LocalDateTime dayEnd);
+    
+    // Gate "today" activity (idx_outpasses_departure_time, idx_outpasses_return_time, idx_outpasses_live_expected_return)
+    @Query(RESPONSE_PROJECTION + "WHERE o.actualDepartureTime >= :dayStart AND o.actualDepartureTime < :dayEnd " +
+           "ORDER BY o.actualDepartureTime ASC, o.id ASC")
+    List<OutpassResponse> findDeparturesBetween(@Param("dayStart") LocalDateTime dayStart,
+                                                @Param("dayEnd") LocalDateTime dayEnd);
+    
+    @Query(RESPONSE_PROJECTION + "WHERE o.actualReturnTime >= :dayStart AND o.actualReturnTime < :dayEnd " +
+           "ORDER BY o.actualReturnTime ASC, o.id ASC")
+    List<OutpassResponse> findReturnsBetween(@Param("dayStart") LocalDateTime dayStart,
+                                             @Param("dayEnd") LocalDateTime dayEnd);
+    
+    @Query(RESPONSE_PROJECTION + "WHERE o.status = com.mit.outpass.enums.OutpassStatus.ACTIVE AND " +
+           "o.expectedReturnDate >= :dayStart AND o.expectedReturnDate < :dayEnd " +
+           "ORDER BY o.expectedReturnDate ASC, o.id ASC")
+    List<OutpassResponse> findActiveDueBetween(@Param("dayStart") LocalDateTime dayStart,
+                                               @Param("dayEnd") LocalDateTime dayEnd);
     
     // Find late returns
     @Query("SELECT o FROM Outpass o WHERE o.isLateReturn = true ORDER BY o.actualReturnTime DESC")
@@ -87,8 +182,8 @@ public interface OutpassRepository extends JpaRepository<Outpass, Long> {
            "(o.status = 'PENDING' OR o.status = 'APPROVED' OR o.status = 'ACTIVE')")
     boolean hasActiveOrPendingOutpass(@Param("studentId") Long studentId);
     
-    // Find outpasses by hostel name (through student)
-    @Query("SELECT o FROM Outpass o WHERE o.student.hostelName = :hostelName ORDER BY o.createdAt DESC")
+    // Find outpasses by hostel name (snapshotted on the outpass)
+    @Query("SELECT o FROM Outpass o WHERE o.hostelName = :hostelName ORDER BY o.createdAt DESC")
     List<Outpass> findByStudentHostelName(@Param("hostelName") String hostelName);
     
     // Find outpasses by course (through student)
@@ -108,32 +203,172 @@ public interface OutpassRepository extends JpaRepository<Outpass, Long> {
     @Query("SELECT o.status, COUNT(o) FROM Outpass o GROUP BY o.status")
     List<Object[]> getOutpassStatusStatistics();
     
-    @Query("SELECT s.hostelName, COUNT(o) FROM Outpass o JOIN o.student s GROUP BY s.hostelName")
+    @Query("SELECT o.hostelName, COUNT(o) FROM Outpass o GROUP BY o.hostelName")
     List<Object[]> getOutpassCountByHostel();
     
+    // Rows of (status, count, lateReturns) for one hostel: warden detailed statistics in a single pass
+    @Query("SELECT o.status, COUNT(o), SUM(CASE WHEN o.isLateReturn = true THEN 1 ELSE 0 END) " +
+           "FROM Outpass o WHERE o.hostelName = :hostelName GROUP BY o.status")
+    List<Object[]> getHostelStatusBreakdown(@Param("hostelName") String hostelName);
+    
+    // Rows of (hostelName, status, count) used to load and reconcile OutpassStatusCounters
+    @Query("SELECT o.hostelName, o.status, COUNT(o) FROM Outpass o GROUP BY o.hostelName, o.status")
+    List<Object[]> countByHostelAndStatus();
+    
+    // Rows of (status, count) for one student's outpasses
+    @Query("SELECT o.status, COUNT(o) FROM Outpass o WHERE o.student.id = :studentId GROUP BY o.status")
+    List<Object[]> countByStatusForStudent(@Param("studentId") Long studentId);
+    
+    // Security gate dashboard counters: one grouped pass instead of loading every outpass
+    @Query("SELECT o.status, COUNT(o), " +
+           "SUM(CASE WHEN o.isLateReturn = true THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN o.actualReturnTime >= :dayStart AND o.actualReturnTime < :dayEnd THEN 1 ELSE 0 END) " +
+           "FROM Outpass o GROUP BY o.status")
+    List<Object[]> getGateDashboardCounts(@Param("dayStart") LocalDateTime dayStart,
+                                          @Param("dayEnd") LocalDateTime dayEnd);
+    
+    // Most recent gate actions (bounded by the pageable, ordered on the departure time)
+    @Query(RESPONSE_PROJECTION +
+           "WHERE o.actualDepartureTime IS NOT NULL ORDER BY o.actualDepartureTime DESC, o.id DESC")
+    List<OutpassResponse> findRecentGateActivity(Pageable pageable);
+    
     @Query("SELECT FUNCTION('MONTH', o.createdAt), COUNT(o) FROM Outpass o " +
            "WHERE FUNCTION('YEAR', o.createdAt) = :year GROUP BY FUNCTION('MONTH', o.createdAt)")
     List<Object[]> getMonthlyOutpassCount(@Param("year") int year);
    // Add these methods to OutpassRepository.java
 
-@Query("SELECT o FROM Outpass o WHERE o.student.hostelName = :hostelName AND o.status = 'PENDING' ORDER BY o.createdAt ASC")
+@Query("SELECT o FROM Outpass o WHERE o.hostelName = :hostelName AND o.status = 'PENDING' ORDER BY o.createdAt ASC")
 List<Outpass> findPendingOutpassesByHostel(@Param("hostelName") String hostelName);
 
-@Query("SELECT o FROM Outpass o WHERE o.student.hostelName = :hostelName AND o.status = com.mit.outpass.enums.OutpassStatus.APPROVED ORDER BY o.leaveStartDate ASC")
+@Query("SELECT o FROM Outpass o WHERE o.hostelName = :hostelName AND o.status = com.mit.outpass.enums.OutpassStatus.APPROVED ORDER BY o.leaveStartDate ASC")
 List<Outpass> findApprovedOutpassesByHostel(@Param("hostelName") String hostelName);
 
-@Query("SELECT o FROM Outpass o WHERE o.student.hostelName = :hostelName AND o.status = com.mit.outpass.enums.OutpassStatus.ACTIVE ORDER BY o.actualDepartureTime ASC")
+@Query("SELECT o FROM Outpass o WHERE o.hostelName = :hostelName AND o.status = com.mit.outpass.enums.OutpassStatus.ACTIVE ORDER BY o.actualDepartureTime ASC")
 List<Outpass> findActiveOutpassesByHostel(@Param("hostelName") String hostelName);
 
-@Query("SELECT o FROM Outpass o WHERE o.student.hostelName = :hostelName ORDER BY o.createdAt DESC")
+@Query("SELECT o FROM Outpass o WHERE o.hostelName = :hostelName ORDER BY o.createdAt DESC")
 List<Outpass> findAllOutpassesByHostel(@Param("hostelName") String hostelName);
 
-@Query("SELECT COUNT(o) FROM Outpass o WHERE o.status = :status AND o.student.hostelName = :hostelName")
+@Query("SELECT COUNT(o) FROM Outpass o WHERE o.status = :status AND o.hostelName = :hostelName")
 long countByStatusAndHostel(@Param("status") OutpassStatus status, @Param("hostelName") String hostelName);
 
-@Query("SELECT COUNT(o) FROM Outpass o WHERE o.student.hostelName = :hostelName")
+@Query("SELECT COUNT(o) FROM Outpass o WHERE o.hostelName = :hostelName")
 long countAllOutpassesByHostel(@Param("hostelName") String hostelName);
 
+// Keyset (seek) pages: rows strictly after the (sort key, id) of the last row already returned.
+// Pass a Pageable of size + 1 so the caller can tell whether another page exists.
+
+@Query(RESPONSE_PROJECTION + "WHERE o.status = com.mit.outpass.enums.OutpassStatus.PENDING AND " +
+       "(o.createdAt > :afterTime OR (o.createdAt = :afterTime AND o.id > :afterId)) " +
+       "ORDER BY o.createdAt ASC, o.id ASC")
+List<OutpassResponse> findPendingOutpassesPage(@Param("afterTime") LocalDateTime afterTime,
+                                               @Param("afterId") Long afterId, Pageable pageable);
+
+@Query(RESPONSE_PROJECTION + "WHERE o.status = com.mit.outpass.enums.OutpassStatus.APPROVED AND " +
+       "(o.leaveStartDate > :afterTime OR (o.leaveStartDate = :afterTime AND o.id > :afterId)) " +
+       "ORDER BY o.leaveStartDate ASC, o.id ASC")
+List<OutpassResponse> findApprovedOutpassesPage(@Param("afterTime") LocalDateTime afterTime,
+                                                @Param("afterId") Long afterId, Pageable pageable);
+
+@Query(RESPONSE_PROJECTION + "WHERE o.status = com.mit.outpass.enums.OutpassStatus.ACTIVE AND " +
+       "(o.actualDepartureTime > :afterTime OR (o.actualDepartureTime = :afterTime AND o.id > :afterId)) " +
+       "ORDER BY o.actualDepartureTime ASC, o.id ASC")
+List<OutpassResponse> findActiveOutpassesPage(@Param("afterTime") LocalDateTime afterTime,
+                                              @Param("afterId") Long afterId, Pageable pageable);
+
+@Query(RESPONSE_PROJECTION + "WHERE s.id = :studentId AND " +
+       "(o.createdAt < :beforeTime OR (o.createdAt = :beforeTime AND o.id < :beforeId)) " +
+       "ORDER BY o.createdAt DESC, o.id DESC")
+List<OutpassResponse> findOutpassesByStudentIdPage(@Param("studentId") Long studentId,
+                                                   @Param("beforeTime") LocalDateTime beforeTime,
+                                                   @Param("beforeId") Long beforeId, Pageable pageable);
+
+@Query(RESPONSE_PROJECTION + "WHERE (o.departureMarkedBy.id = :securityId OR o.returnMarkedBy.id = :securityId) AND " +
+       "(o.actualDepartureTime < :beforeTime OR (o.actualDepartureTime = :beforeTime AND o.id < :beforeId)) " +
+       "ORDER BY o.actualDepartureTime DESC, o.id DESC")
+List<OutpassResponse> findBySecurityIdPage(@Param("securityId") Long securityId,
+                                           @Param("beforeTime") LocalDateTime beforeTime,
+                                           @Param("beforeId") Long beforeId, Pageable pageable);
+
+@Query(RESPONSE_PROJECTION + "WHERE o.hostelName = :hostelName AND o.status = com.mit.outpass.enums.OutpassStatus.PENDING AND " +
+       "(o.createdAt > :afterTime OR (o.createdAt = :afterTime AND o.id > :afterId)) " +
+       "ORDER BY o.createdAt ASC, o.id ASC")
+List<OutpassResponse> findPendingOutpassesByHostelPage(@Param("hostelName") String hostelName,
+                                                       @Param("afterTime") LocalDateTime afterTime,
+                                                       @Param("afterId") Long afterId, Pageable pageable);
+
+@Query(RESPONSE_PROJECTION + "WHERE o.hostelName = :hostelName AND o.status = com.mit.outpass.enums.OutpassStatus.APPROVED AND " +
+       "(o.leaveStartDate > :afterTime OR (o.leaveStartDate = :afterTime AND o.id > :afterId)) " +
+       "ORDER BY o.leaveStartDate ASC, o.id ASC")
+List<OutpassResponse> findApprovedOutpassesByHostelPage(@Param("hostelName") String hostelName,
+                                                        @Param("afterTime") LocalDateTime afterTime,
+                                                        @Param("afterId") Long afterId, Pageable pageable);
+
+@Query(RESPONSE_PROJECTION + "WHERE o.hostelName = :hostelName AND o.status = com.mit.outpass.enums.OutpassStatus.ACTIVE AND " +
+       "(o.actualDepartureTime > :afterTime OR (o.actualDepartureTime = :afterTime AND o.id > :afterId)) " +
+       "ORDER BY o.actualDepartureTime ASC, o.id ASC")
+List<OutpassResponse> findActiveOutpassesByHostelPage(@Param("hostelName") String hostelName,
+                                                      @Param("afterTime") LocalDateTime afterTime,
+                                                      @Param("afterId") Long afterId, Pageable pageable);
+
+@Query(RESPONSE_PROJECTION + "WHERE o.hostelName = :hostelName AND " +
+       "(o.createdAt < :beforeTime OR (o.createdAt = :beforeTime AND o.id < :beforeId)) " +
+       "ORDER BY o.createdAt DESC, o.id DESC")
+List<OutpassResponse> findAllOutpassesByHostelPage(@Param("hostelName") String hostelName,
+                                                   @Param("beforeTime") LocalDateTime beforeTime,
+                                                   @Param("beforeId") Long beforeId, Pageable pageable);
+
+// Unbounded projections used by dashboards/statistics and single-row lookups
+
+@Query(RESPONSE_PROJECTION + "WHERE o.id = :id")
+Optional<OutpassResponse> findResponseById(@Param("id") Long id);
+
+@Query(RESPONSE_PROJECTION + "ORDER BY o.id ASC")
+List<OutpassResponse> findAllResponses();
+
+@Query(RESPONSE_PROJECTION + "WHERE o.status = com.mit.outpass.enums.OutpassStatus.PENDING ORDER BY o.createdAt ASC")
+List<OutpassResponse> findPendingResponses();
+
+@Query(RESPONSE_PROJECTION + "WHERE o.status = com.mit.outpass.enums.OutpassStatus.APPROVED ORDER BY o.leaveStartDate ASC")
+List<OutpassResponse> findApprovedResponses();
+
+@Query(RESPONSE_PROJECTION + "WHERE o.status = com.mit.outpass.enums.OutpassStatus.ACTIVE ORDER BY o.actualDepartureTime ASC")
+List<OutpassResponse> findActiveResponses();
+
+@Query(RESPONSE_PROJECTION + "WHERE s.id = :studentId ORDER BY o.createdAt DESC")
+List<OutpassResponse> findResponsesByStudentId(@Param("studentId") Long studentId);
+
+@Query(RESPONSE_PROJECTION + "WHERE o.hostelName = :hostelName AND o.status = com.mit.outpass.enums.OutpassStatus.PENDING ORDER BY o.createdAt ASC")
+List<OutpassResponse> findPendingResponsesByHostel(@Param("hostelName") String hostelName);
+
+@Query(RESPONSE_PROJECTION + "WHERE o.hostelName = :hostelName AND o.status = com.mit.outpass.enums.OutpassStatus.APPROVED ORDER BY o.leaveStartDate ASC")
+List<OutpassResponse> findApprovedResponsesByHostel(@Param("hostelName") String hostelName);
+
+@Query(RESPONSE_PROJECTION + "WHERE o.hostelName = :hostelName AND o.status = com.mit.outpass.enums.OutpassStatus.ACTIVE ORDER BY o.actualDepartureTime ASC")
+List<OutpassResponse> findActiveResponsesByHostel(@Param("hostelName") String hostelName);
+
+@Query(RESPONSE_PROJECTION + "WHERE o.hostelName = :hostelName ORDER BY o.createdAt DESC")
+List<OutpassResponse> findAllResponsesByHostel(@Param("hostelName") String hostelName);
+
+// Forward-only cursor for exports: rows are DTOs (never managed) pulled from the driver EXPORT_FETCH_SIZE at a time.
+// Consume inside a read-only transaction and close the stream when done.
+@QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+})
+@Query(RESPONSE_PROJECTION + "WHERE o.createdAt >= :from AND o.createdAt < :to AND " +
+       "(:hostelName IS NULL OR o.hostelName = :hostelName) AND (:status IS NULL OR o.status = :status) " +
+       "ORDER BY o.createdAt ASC, o.id ASC")
+Stream<OutpassResponse> streamForExport(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                        @Param("hostelName") String hostelName,
+                                        @Param("status") OutpassStatus status);
+
+// Keep the hostel snapshot in step when a student is moved to another hostel.
+// Bumps the version like the other bulk updates and clears the persistence context so no stale Outpass survives.
+@Modifying(flushAutomatically = true, clearAutomatically = true)
+@Query("UPDATE Outpass o SET o.hostelName = :hostelName, o.version = o.version + 1 WHERE o.student.id = :studentId")
+int updateHostelNameByStudentId(@Param("studentId") Long studentId, @Param("hostelName") String hostelName);
+
 @Query("SELECT o FROM Outpass o WHERE o.reviewedBy.id = :wardenUserId")
 List<Outpass> findByReviewedByWardenUserId(@Param("wardenUserId") Long wardenUserId);
 }
\ No newline at end of file
@@ -3,6 +3,8 @@ package com.mit.outpass.repository;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -38,6 +40,25 @@ public interface SecurityRepository extends JpaRepository<Security, Long> {
     // Check if security ID exists
     boolean existsBySecurityId(String securityId);
     
+    /**
+     * Security staff row of the admin directory
+     */
+    interface SecurityRow extends UserRepository.UserRow {
+        String getSecurityId();
+        String getShift();
+        String getGateAssigned();
+    }
+    
+    String DIRECTORY_FILTER = "WHERE (:gateAssigned IS NULL OR u.gateAssigned = :gateAssigned) " +
+            "AND (:active IS NULL OR u.isActive = :active)";
+    
+    // Admin directory page; null filters match everything. Sort properties are the row aliases.
+    @Query(value = UserRepository.USER_ROW_SELECT + ", u.securityId AS securityId, u.shift AS shift, " +
+           "u.gateAssigned AS gateAssigned FROM Security u " + DIRECTORY_FILTER,
+           countQuery = "SELECT COUNT(u) FROM Security u " + DIRECTORY_FILTER)
+    Page<SecurityRow> findDirectory(@Param("gateAssigned") String gateAssigned, @Param("active") Boolean active,
+                                    Pageable pageable);
+    
     // Find security personnel with minimum years of service
     @Query("SELECT s FROM Security s WHERE s.yearsOfService >= :years")
     List<Security> findByMinimumYearsOfService(@Param("years") Integer years);
@@ -1,8 +1,11 @@
 package com.mit.outpass.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -43,9 +46,39 @@ public interface StudentRepository extends JpaRepository<Student, Long> {
     // Check if roll number exists
     boolean existsByRollNumber(String rollNumber);
     
+    // Which of these roll numbers are already registered (bulk import)
+    @Query("SELECT s.rollNumber FROM Student s WHERE s.rollNumber IN :rollNumbers")
+    List<String> findExistingRollNumbers(@Param("rollNumbers") Collection<String> rollNumbers);
+    
     // Check if room is occupied
     boolean existsByHostelNameAndRoomNumber(String hostelName, String roomNumber);
     
+    /**
+     * Student row of the admin directory
+     */
+    interface StudentRow extends UserRepository.UserRow {
+        String getRollNumber();
+        String getCourse();
+        String getDegree();
+        Integer getYearOfStudy();
+        String getHostelName();
+        String getRoomNumber();
+    }
+    
+    String DIRECTORY_FILTER = "WHERE (:hostelName IS NULL OR u.hostelName = :hostelName) " +
+            "AND (:course IS NULL OR u.course = :course) " +
+            "AND (:yearOfStudy IS NULL OR u.yearOfStudy = :yearOfStudy) " +
+            "AND (:active IS NULL OR u.isActive = :active)";
+    
+    // Admin directory page; null filters match everything. Sort properties are the row aliases.
+    @Query(value = UserRepository.USER_ROW_SELECT + ", u.rollNumber AS rollNumber, u.course AS course, " +
+           "u.degree AS degree, u.yearOfStudy AS yearOfStudy, u.hostelName AS hostelName, u.roomNumber AS roomNumber " +
+           "FROM Student u " + DIRECTORY_FILTER,
+           countQuery = "SELECT COUNT(u) FROM Student u " + DIRECTORY_FILTER)
+    Page<StudentRow> findDirectory(@Param("hostelName") String hostelName, @Param("course") String course,
+                                   @Param("yearOfStudy") Integer yearOfStudy, @Param("active") Boolean active,
+                                   Pageable pageable);
+    
     // Find students by partial roll number match
     @Query("SELECT s FROM Student s WHERE s.rollNumber LIKE %:rollNumber%")
     List<Student> findByRollNumberContaining(@Param("rollNumber") String rollNumber);
@@ -2,6 +2,7 @@
 package com.mit.outpass.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,6 +29,49 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByEmail(String email);
     boolean existsByEmailAndIdNot(String email, Long id);
     
+    // Set-based duplicate checks for bulk imports: which of these values are already taken
+    @Query("SELECT u.username FROM User u WHERE u.username IN :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+    
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+    
+    @Query("SELECT u.mobileNumber FROM User u WHERE u.mobileNumber IN :mobileNumbers")
+    List<String> findExistingMobileNumbers(@Param("mobileNumbers") Collection<String> mobileNumbers);
+    
+    /**
+     * Columns needed to authenticate, read without loading the JOINED entity
+     */
+    interface LoginAccount {
+        Long getId();
+        String getUsername();
+        String getPassword();
+        String getFullName();
+        String getRole();
+        Boolean getIsActive();
+    }
+    
+    // Resolve a login ID in one statement. Each branch is a unique-index probe; with a role only that
+    // role's institutional ID is tried, otherwise the first match wins in the order
+    // roll number, employee ID, security ID, admin ID, username.
+    @Query(value = "SELECT u.id AS \"id\", u.username AS \"username\", u.password AS \"password\", " +
+           "u.full_name AS \"fullName\", u.role AS \"role\", u.is_active AS \"isActive\" " +
+           "FROM (SELECT user_id, 1 AS priority, 'STUDENT' AS source FROM students WHERE roll_number = :loginId " +
+           "      UNION ALL SELECT user_id, 2, 'WARDEN' FROM wardens WHERE employee_id = :loginId " +
+           "      UNION ALL SELECT user_id, 3, 'SECURITY' FROM security_personnel WHERE security_id = :loginId " +
+           "      UNION ALL SELECT user_id, 4, 'ADMIN' FROM admins WHERE admin_id = :loginId " +
+           "      UNION ALL SELECT id, 5, 'USERNAME' FROM users WHERE username = :loginId) m " +
+           "JOIN users u ON u.id = m.user_id " +
+           "WHERE CAST(:role AS VARCHAR) IS NULL OR m.source = CAST(:role AS VARCHAR) " +
+           "ORDER BY m.priority LIMIT 1",
+           nativeQuery = true)
+    Optional<LoginAccount> findLoginAccount(@Param("loginId") String loginId, @Param("role") String role);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :userId")
+    void updatePassword(@Param("userId") Long userId, @Param("password") String password);
+    
     @Modifying
     @Transactional
     @Query("UPDATE User u SET u.lastLogin = :loginTime WHERE u.id = :userId")
@@ -40,6 +84,79 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u WHERE LOWER(u.fullName) LIKE LOWER(CONCAT('%', :name, '%'))")
     List<User> findByFullNameContainingIgnoreCase(@Param("name") String name);
     
+    // Columns shared by the admin directory projections; each role's query selects these from alias u plus its own
+    String USER_ROW_SELECT = "SELECT u.id AS id, u.username AS username, u.fullName AS fullName, u.email AS email, " +
+            "u.mobileNumber AS mobileNumber, u.isActive AS isActive, u.createdAt AS createdAt, u.lastLogin AS lastLogin";
+
+    /**
+     * Account columns of an admin directory row, read without loading the JOINED entity
+     */
+    interface UserRow {
+        Long getId();
+        String getUsername();
+        String getFullName();
+        String getEmail();
+        String getMobileNumber();
+        Boolean getIsActive();
+        LocalDateTime getCreatedAt();
+        LocalDateTime getLastLogin();
+    }
+
+    /**
+     * One row of the admin user search, with the role-specific identifiers shown in the results list
+     */
+    interface UserSearchHit {
+        Long getId();
+        String getUsername();
+        String getFullName();
+        String getEmail();
+        String getMobileNumber();
+        String getRole();
+        Boolean getIsActive();
+        String getRollNumber();
+        String getHostelName();
+        String getEmployeeId();
+        String getHostelAssigned();
+        String getSecurityId();
+        String getGateAssigned();
+        String getAdminId();
+    }
+
+    // Ranked search over names, usernames, emails and institutional IDs, backed by the trigram GIN
+    // indexes from db/migration/V10. :query is the lower-cased term and :pattern its escaped '%term%' form.
+    // Each candidate branch is an index scan on its own table; names also match with typos through
+    // pg_trgm similarity (%) and word similarity (<%). Exact identifier matches rank first, then name similarity.
+    @Query(value = "WITH candidates AS (" +
+           "    SELECT id AS user_id FROM users " +
+           "    WHERE lower(full_name) % :query OR :query <% lower(full_name) " +
+           "       OR lower(full_name) LIKE :pattern OR lower(username) LIKE :pattern OR lower(email) LIKE :pattern " +
+           "    UNION SELECT user_id FROM students WHERE lower(roll_number) LIKE :pattern " +
+           "    UNION SELECT user_id FROM wardens WHERE lower(employee_id) LIKE :pattern " +
+           "    UNION SELECT user_id FROM security_personnel WHERE lower(security_id) LIKE :pattern " +
+           "    UNION SELECT user_id FROM admins WHERE lower(admin_id) LIKE :pattern) " +
+           "SELECT u.id AS \"id\", u.username AS \"username\", u.full_name AS \"fullName\", u.email AS \"email\", " +
+           "u.mobile_number AS \"mobileNumber\", u.role AS \"role\", u.is_active AS \"isActive\", " +
+           "s.roll_number AS \"rollNumber\", s.hostel_name AS \"hostelName\", " +
+           "w.employee_id AS \"employeeId\", w.hostel_assigned AS \"hostelAssigned\", " +
+           "sp.security_id AS \"securityId\", sp.gate_assigned AS \"gateAssigned\", a.admin_id AS \"adminId\" " +
+           "FROM candidates c " +
+           "JOIN users u ON u.id = c.user_id " +
+           "LEFT JOIN students s ON s.user_id = u.id " +
+           "LEFT JOIN wardens w ON w.user_id = u.id " +
+           "LEFT JOIN security_personnel sp ON sp.user_id = u.id " +
+           "LEFT JOIN admins a ON a.user_id = u.id " +
+           "WHERE CAST(:role AS VARCHAR) IS NULL OR u.role = CAST(:role AS VARCHAR) " +
+           "ORDER BY CASE WHEN lower(u.username) = :query OR lower(s.roll_number) = :query " +
+           "              OR lower(w.employee_id) = :query OR lower(sp.security_id) = :query " +
+           "              OR lower(a.admin_id) = :query THEN 0 ELSE 1 END, " +
+           "         GREATEST(similarity(lower(u.full_name), :query), word_similarity(:query, lower(u.full_name))) DESC, " +
+           "         u.id " +
+           "LIMIT :limit OFFSET :offset",
+           nativeQuery = true)
+    List<UserSearchHit> searchUsers(@Param("query") String query, @Param("pattern") String pattern,
+                                    @Param("role") String role, @Param("limit") int limit,
+                                    @Param("offset") int offset);
+
     @Query("SELECT COUNT(u) FROM User u WHERE u.role = :role")
     long countByRole(@Param("role") UserRole role);
     
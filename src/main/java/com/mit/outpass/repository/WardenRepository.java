@@ -3,6 +3,8 @@ package com.mit.outpass.repository;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -39,6 +41,26 @@ public interface WardenRepository extends JpaRepository<Warden, Long> {
     // Check if employee ID exists
     boolean existsByEmployeeId(String employeeId);
     
+    /**
+     * Warden row of the admin directory
+     */
+    interface WardenRow extends UserRepository.UserRow {
+        String getEmployeeId();
+        String getDepartment();
+        String getDesignation();
+        String getHostelAssigned();
+    }
+    
+    String DIRECTORY_FILTER = "WHERE (:hostelAssigned IS NULL OR u.hostelAssigned = :hostelAssigned) " +
+            "AND (:active IS NULL OR u.isActive = :active)";
+    
+    // Admin directory page; null filters match everything. Sort properties are the row aliases.
+    @Query(value = UserRepository.USER_ROW_SELECT + ", u.employeeId AS employeeId, u.department AS department, " +
+           "u.designation AS designation, u.hostelAssigned AS hostelAssigned FROM Warden u " + DIRECTORY_FILTER,
+           countQuery = "SELECT COUNT(u) FROM Warden u " + DIRECTORY_FILTER)
+    Page<WardenRow> findDirectory(@Param("hostelAssigned") String hostelAssigned, @Param("active") Boolean active,
+                                  Pageable pageable);
+    
     // Find wardens with experience greater than specified years
     @Query("SELECT w FROM Warden w WHERE w.yearsOfExperience >= :years")
     List<Warden> findByMinimumExperience(@Param("years") Integer years);
@@ -2,6 +2,7 @@ package com.mit.outpass.service;
 
 import com.mit.outpass.controller.AdminController;
 import com.mit.outpass.controller.AuthController.RegisterRequest;
+import com.mit.outpass.dto.PageResponse;
 import com.mit.outpass.dto.UserDTO;
 import com.mit.outpass.entity.Admin;
 import com.mit.outpass.entity.Outpass;
@@ -17,7 +18,13 @@ import com.mit.outpass.repository.WardenRepository;
 import com.mit.outpass.repository.SecurityRepository;
 import com.mit.outpass.repository.AdminRepository;
 import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -26,12 +33,24 @@ import com.mit.outpass.repository.OutpassRepository;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class AdminService {
     
+    private static final Logger log = LoggerFactory.getLogger(AdminService.class);
+    
+    // Admin user search: shortest useful trigram term and the largest page served
+    private static final int SEARCH_MIN_LENGTH = 3;
+    private static final int SEARCH_MAX_PAGE_SIZE = 50;
+    
+    // Directory sort keys every role supports; each directory adds its own columns
+    private static final Set<String> DIRECTORY_SORTS =
+            Set.of("fullName", "username", "email", "createdAt", "lastLogin");
+    
     @Autowired
     private UserRepository userRepository;
     
@@ -55,6 +74,12 @@ public class AdminService {
     
      @Autowired
     private OutpassRepository outpassRepository;
+    
+    @Autowired
+    private WardenService wardenService;
+    
+    @Autowired
+    private OutpassStatusCounters statusCounters;
     /**
      * Get dashboard statistics based on permission level
      */
@@ -212,18 +237,12 @@ public class AdminService {
     }
     
     /**
-     * Get all students data
+     * Get all students data (unpaged; the admin UI pages through getStudentDirectory)
      */
     public List<UserDTO> getAllStudents() {
         try {
-            List<Student> students = studentRepository.findAll();
-            List<UserDTO> studentDTOs = new ArrayList<>();
-            
-            for (Student student : students) {
-                UserDTO dto = convertToUserDTO(student);
-                studentDTOs.add(dto);
-            }
-            
+            List<UserDTO> studentDTOs = studentRepository.findDirectory(null, null, null, null, Pageable.unpaged())
+                    .map(this::toUserDTO).getContent();
             System.out.println("Fetched " + studentDTOs.size() + " students");
             return studentDTOs;
         } catch (Exception e) {
@@ -234,18 +253,12 @@ public class AdminService {
     }
     
     /**
-     * Get all wardens data
+     * Get all wardens data (unpaged; the admin UI pages through getWardenDirectory)
      */
     public List<UserDTO> getAllWardens() {
         try {
-            List<Warden> wardens = wardenRepository.findAll();
-            List<UserDTO> wardenDTOs = new ArrayList<>();
-            
-            for (Warden warden : wardens) {
-                UserDTO dto = convertToUserDTO(warden);
-                wardenDTOs.add(dto);
-            }
-            
+            List<UserDTO> wardenDTOs = wardenRepository.findDirectory(null, null, Pageable.unpaged())
+                    .map(this::toUserDTO).getContent();
             System.out.println("Fetched " + wardenDTOs.size() + " wardens");
             return wardenDTOs;
         } catch (Exception e) {
@@ -256,18 +269,12 @@ public class AdminService {
     }
     
     /**
-     * Get all security personnel data
+     * Get all security personnel data (unpaged; the admin UI pages through getSecurityDirectory)
      */
     public List<UserDTO> getAllSecurity() {
         try {
-            List<Security> securityList = securityRepository.findAll();
-            List<UserDTO> securityDTOs = new ArrayList<>();
-            
-            for (Security security : securityList) {
-                UserDTO dto = convertToUserDTO(security);
-                securityDTOs.add(dto);
-            }
-            
+            List<UserDTO> securityDTOs = securityRepository.findDirectory(null, null, Pageable.unpaged())
+                    .map(this::toUserDTO).getContent();
             System.out.println("Fetched " + securityDTOs.size() + " security personnel");
             return securityDTOs;
         } catch (Exception e) {
@@ -282,14 +289,8 @@ public class AdminService {
      */
     public List<UserDTO> getAllAdmins() {
         try {
-            List<Admin> admins = adminRepository.findAll();
-            List<UserDTO> adminDTOs = new ArrayList<>();
-            
-            for (Admin admin : admins) {
-                UserDTO dto = convertToUserDTO(admin);
-                adminDTOs.add(dto);
-            }
-            
+            List<UserDTO> adminDTOs = adminRepository.findDirectory(null, Pageable.unpaged())
+                    .map(this::toUserDTO).getContent();
             System.out.println("Fetched " + adminDTOs.size() + " admins");
             return adminDTOs;
         } catch (Exception e) {
@@ -299,6 +300,114 @@ public class AdminService {
         }
     }
     
+    /**
+     * One page of the student directory. Null filters match everything; sort is one of
+     * DIRECTORY_SORTS or rollNumber, hostelName, course, yearOfStudy (default fullName ascending).
+     */
+    @Transactional(readOnly = true)
+    public PageResponse<UserDTO> getStudentDirectory(String hostelName, String course, Integer yearOfStudy,
+                                                     Boolean active, Integer page, Integer size,
+                                                     String sort, String direction) {
+        Pageable pageable = directoryPage(page, size, sort, direction,
+                                          Set.of("rollNumber", "hostelName", "course", "yearOfStudy"));
+        Page<StudentRepository.StudentRow> rows =
+                studentRepository.findDirectory(hostelName, course, yearOfStudy, active, pageable);
+        return PageResponse.of(rows, rows.map(this::toUserDTO).getContent());
+    }
+    
+    /**
+     * One page of the warden directory, optionally limited to one hostel
+     */
+    @Transactional(readOnly = true)
+    public PageResponse<UserDTO> getWardenDirectory(String hostelAssigned, Boolean active, Integer page,
+                                                    Integer size, String sort, String direction) {
+        Pageable pageable = directoryPage(page, size, sort, direction,
+                                          Set.of("employeeId", "department", "hostelAssigned"));
+        Page<WardenRepository.WardenRow> rows = wardenRepository.findDirectory(hostelAssigned, active, pageable);
+        return PageResponse.of(rows, rows.map(this::toUserDTO).getContent());
+    }
+    
+    /**
+     * One page of the security staff directory, optionally limited to one gate
+     */
+    @Transactional(readOnly = true)
+    public PageResponse<UserDTO> getSecurityDirectory(String gateAssigned, Boolean active, Integer page,
+                                                      Integer size, String sort, String direction) {
+        Pageable pageable = directoryPage(page, size, sort, direction,
+                                          Set.of("securityId", "shift", "gateAssigned"));
+        Page<SecurityRepository.SecurityRow> rows = securityRepository.findDirectory(gateAssigned, active, pageable);
+        return PageResponse.of(rows, rows.map(this::toUserDTO).getContent());
+    }
+    
+    /**
+     * One page of the admin directory - only for SUPER_ADMIN
+     */
+    @Transactional(readOnly = true)
+    public PageResponse<UserDTO> getAdminDirectory(Boolean active, Integer page, Integer size,
+                                                   String sort, String direction) {
+        Pageable pageable = directoryPage(page, size, sort, direction, Set.of("adminId", "permissionLevel"));
+        Page<AdminRepository.AdminRow> rows = adminRepository.findDirectory(active, pageable);
+        return PageResponse.of(rows, rows.map(this::toUserDTO).getContent());
+    }
+    
+    /**
+     * Validate directory paging input; id is always the last sort key so pages never overlap
+     */
+    private static Pageable directoryPage(Integer page, Integer size, String sort, String direction,
+                                          Set<String> roleSorts) {
+        if (page != null && page < 0) {
+            throw new IllegalArgumentException("Page must not be negative");
+        }
+        String property = sort == null || sort.isBlank() ? "fullName" : sort;
+        if (!DIRECTORY_SORTS.contains(property) && !roleSorts.contains(property)) {
+            throw new IllegalArgumentException("Cannot sort by '" + sort + "'");
+        }
+        Sort.Direction order = direction == null || direction.isBlank()
+                ? Sort.Direction.ASC : Sort.Direction.fromString(direction);
+        return PageRequest.of(page != null ? page : 0, PageResponse.clampSize(size),
+                              Sort.by(order, property).and(Sort.by("id")));
+    }
+    
+    /**
+     * Search users by name, username, email or institutional ID, best matches first.
+     * Names tolerate typos; IDs and emails match as substrings. Terms shorter than
+     * SEARCH_MIN_LENGTH are rejected because trigram indexes cannot narrow them down.
+     */
+    @Transactional(readOnly = true)
+    public List<UserDTO> searchUsers(String query, UserRole role, int page, int size) {
+        String term = query != null ? query.trim().toLowerCase(Locale.ROOT) : "";
+        if (term.length() < SEARCH_MIN_LENGTH) {
+            throw new IllegalArgumentException("Search term must be at least " + SEARCH_MIN_LENGTH + " characters");
+        }
+        if (page < 0) {
+            throw new IllegalArgumentException("Page must not be negative");
+        }
+        int limit = Math.max(1, Math.min(size, SEARCH_MAX_PAGE_SIZE));
+        String pattern = "%" + term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+
+        List<UserDTO> results = new ArrayList<>();
+        for (UserRepository.UserSearchHit hit : userRepository.searchUsers(
+                term, pattern, role != null ? role.name() : null, limit, page * limit)) {
+            UserDTO dto = new UserDTO();
+            dto.setId(hit.getId());
+            dto.setUsername(hit.getUsername());
+            dto.setFullName(hit.getFullName());
+            dto.setEmail(hit.getEmail());
+            dto.setMobileNumber(hit.getMobileNumber());
+            dto.setRole(UserRole.valueOf(hit.getRole()));
+            dto.setActive(Boolean.TRUE.equals(hit.getIsActive()));
+            dto.setRollNumber(hit.getRollNumber());
+            dto.setHostelName(hit.getHostelName());
+            dto.setEmployeeId(hit.getEmployeeId());
+            dto.setHostelAssigned(hit.getHostelAssigned());
+            dto.setSecurityId(hit.getSecurityId());
+            dto.setGateAssigned(hit.getGateAssigned());
+            dto.setAdminId(hit.getAdminId());
+            results.add(dto);
+        }
+        return results;
+    }
+
     /**
      * Register user by admin (only admin can register users)
      */
@@ -368,6 +477,7 @@ public Map<String, Object> deleteUser(Long userId) {
             case WARDEN:
                 // Delete warden using native query first
                 wardenRepository.deleteWardenByIdNative(userId);
+                wardenService.evictWardenHostel(userId);
                 System.out.println("✅ Warden entity deleted via native query");
                 break;
                 
@@ -537,9 +647,16 @@ public Map<String, Object> deleteUser(Long userId) {
                 student.setYearOfStudy(updateRequest.getYearOfStudy());
                 System.out.println("✅ Updated year of study: " + updateRequest.getYearOfStudy());
             }
-            if (updateRequest.getHostelName() != null) {
+            if (updateRequest.getHostelName() != null
+                    && !updateRequest.getHostelName().equals(student.getHostelName())) {
+                String previousHostel = student.getHostelName();
                 student.setHostelName(updateRequest.getHostelName());
-                System.out.println("✅ Updated hostel name: " + updateRequest.getHostelName());
+                statusCounters.recordHostelMove(previousHostel, updateRequest.getHostelName(),
+                        outpassRepository.countByStatusForStudent(student.getId()));
+                // Flushes and clears the persistence context: student is detached from here on and merged by the save below
+                int moved = outpassRepository.updateHostelNameByStudentId(student.getId(), updateRequest.getHostelName());
+                log.info("Updated hostel name for student {}: {} ({} outpasses moved)",
+                         student.getId(), updateRequest.getHostelName(), moved);
             }
             if (updateRequest.getRoomNumber() != null) {
                 student.setRoomNumber(updateRequest.getRoomNumber());
@@ -576,6 +693,7 @@ public Map<String, Object> deleteUser(Long userId) {
             }
             if (updateRequest.getHostelAssigned() != null) {
                 warden.setHostelAssigned(updateRequest.getHostelAssigned());
+                wardenService.evictWardenHostel(warden.getId());
                 System.out.println("✅ Updated hostel assigned: " + updateRequest.getHostelAssigned());
             }
             
@@ -673,6 +791,60 @@ public Map<String, Object> deleteUser(Long userId) {
         }
     }
     
+    /**
+     * Convert directory rows to UserDTO; same fields as convertToUserDTO without loading the entity
+     */
+    private UserDTO toUserDTO(UserRepository.UserRow row, UserRole role) {
+        UserDTO dto = new UserDTO();
+        dto.setId(row.getId());
+        dto.setUsername(row.getUsername());
+        dto.setFullName(row.getFullName());
+        dto.setEmail(row.getEmail());
+        dto.setMobileNumber(row.getMobileNumber());
+        dto.setRole(role);
+        dto.setActive(Boolean.TRUE.equals(row.getIsActive()));
+        dto.setCreatedAt(row.getCreatedAt() != null ? row.getCreatedAt().toString() : "N/A");
+        dto.setLastLogin(row.getLastLogin());
+        return dto;
+    }
+    
+    private UserDTO toUserDTO(StudentRepository.StudentRow row) {
+        UserDTO dto = toUserDTO(row, UserRole.STUDENT);
+        dto.setRollNumber(row.getRollNumber());
+        dto.setCourse(row.getCourse());
+        dto.setDegree(row.getDegree());
+        dto.setYearOfStudy(row.getYearOfStudy());
+        dto.setHostelName(row.getHostelName());
+        dto.setRoomNumber(row.getRoomNumber());
+        return dto;
+    }
+    
+    private UserDTO toUserDTO(WardenRepository.WardenRow row) {
+        UserDTO dto = toUserDTO(row, UserRole.WARDEN);
+        dto.setEmployeeId(row.getEmployeeId());
+        dto.setDepartment(row.getDepartment());
+        dto.setDesignation(row.getDesignation());
+        dto.setHostelAssigned(row.getHostelAssigned());
+        return dto;
+    }
+    
+    private UserDTO toUserDTO(SecurityRepository.SecurityRow row) {
+        UserDTO dto = toUserDTO(row, UserRole.SECURITY);
+        dto.setSecurityId(row.getSecurityId());
+        dto.setShift(row.getShift());
+        dto.setGateAssigned(row.getGateAssigned());
+        return dto;
+    }
+    
+    private UserDTO toUserDTO(AdminRepository.AdminRow row) {
+        UserDTO dto = toUserDTO(row, UserRole.ADMIN);
+        dto.setAdminId(row.getAdminId());
+        dto.setDepartment(row.getDepartment());
+        dto.setDesignation(row.getDesignation());
+        dto.setPermissionLevel(mapPermissionLevel(row.getPermissionLevel()));
+        return dto;
+    }
+    
     /**
      * Convert User entity to UserDTO with proper permission level mapping
      */
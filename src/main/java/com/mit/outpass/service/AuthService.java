@@ -1,5 +1,7 @@
 package com.mit.outpass.service;
 
+import com.mit.outpass.config.AuthenticatedUser;
+import com.mit.outpass.config.JwtTokenVerifier;
 import com.mit.outpass.controller.AuthController.RegisterRequest;
 import com.mit.outpass.dto.LoginRequest;
 import com.mit.outpass.dto.LoginResponse;
@@ -12,15 +14,20 @@ import com.mit.outpass.entity.User;
 import com.mit.outpass.entity.Warden;
 import com.mit.outpass.enums.UserRole;
 import com.mit.outpass.exception.ResourceNotFoundException;
+import com.mit.outpass.exception.ServiceBusyException;
 import com.mit.outpass.repository.AdminRepository;
 import com.mit.outpass.repository.SecurityRepository;
 import com.mit.outpass.repository.StudentRepository;
 import com.mit.outpass.repository.UserRepository;
+import com.mit.outpass.repository.UserRepository.LoginAccount;
 import com.mit.outpass.repository.WardenRepository;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -37,6 +44,8 @@ import java.util.Optional;
 @Service
 public class AuthService {
     
+    private static final Logger log = LoggerFactory.getLogger(AuthService.class);
+    
     @Autowired
     private UserRepository userRepository;
     
@@ -55,8 +64,20 @@ public class AuthService {
     @Autowired
     private PasswordEncoder passwordEncoder;
     
-    @Value("${app.jwt.secret}")
-    private String jwtSecret;
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+    
+    @Autowired
+    private LastLoginRecorder lastLoginRecorder;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private SecretKey jwtSigningKey;
+    
+    @Autowired
+    private JwtTokenVerifier jwtTokenVerifier;
     
     @Value("${app.jwt.expiration}")
     private long jwtExpiration;
@@ -65,25 +86,47 @@ public class AuthService {
         return userRepository.findByUsername(username);
     }
     
+    /**
+     * Authenticate and issue a JWT. Timed overall as auth.login (by outcome) and per stage as auth.login.stage.
+     */
     public LoginResponse authenticateUser(LoginRequest loginRequest) {
-        System.out.println("🔐 AuthService: Attempting login for ID: " + loginRequest.getLoginId());
-        
-        User user = findUserByLoginId(loginRequest.getLoginId(), loginRequest.getRole())
-                .orElseThrow(() -> new BadCredentialsException("Invalid credentials"));
+        Timer.Sample login = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            LoginResponse response = login(loginRequest);
+            outcome = "success";
+            return response;
+        } catch (ServiceBusyException e) {
+            outcome = "busy";
+            throw e;
+        } finally {
+            login.stop(meterRegistry.timer("auth.login", "outcome", outcome));
+        }
+    }
+    
+    private LoginResponse login(LoginRequest loginRequest) {
+        log.debug("Login attempt for ID {}", loginRequest.getLoginId());
         
-        System.out.println("✅ User found: " + user.getUsername() + ", Role: " + user.getRole());
+        Timer.Sample stage = Timer.start(meterRegistry);
+        Optional<LoginAccount> found = userRepository.findLoginAccount(loginRequest.getLoginId(),
+                loginIdSource(loginRequest.getRole()));
+        stage.stop(loginStage("lookup"));
+        LoginAccount account = found.orElseThrow(() -> new BadCredentialsException("Invalid credentials"));
+        UserRole userRole = UserRole.valueOf(account.getRole());
         
-        // Password verification
-        boolean passwordMatches = passwordEncoder.matches(loginRequest.getPassword(), user.getPassword());
+        log.debug("User found: {} ({})", account.getUsername(), userRole);
         
-        System.out.println("🔑 Password verification result: " + passwordMatches);
+        // Password verification, on the hashing pool (includes any wait for a worker)
+        stage = Timer.start(meterRegistry);
+        boolean passwordMatches = passwordHashingService.matches(loginRequest.getPassword(), account.getPassword());
+        stage.stop(loginStage("verify"));
         
         if (!passwordMatches) {
             throw new BadCredentialsException("Invalid credentials");
         }
         
         // Check if user is active
-        if (!user.getIsActive()) {
+        if (!Boolean.TRUE.equals(account.getIsActive())) {
             throw new BadCredentialsException("Account is deactivated. Please contact administrator.");
         }
         
@@ -91,8 +134,8 @@ public class AuthService {
         if (loginRequest.getRole() != null && !loginRequest.getRole().isEmpty()) {
             try {
                 UserRole requestedRole = UserRole.valueOf(loginRequest.getRole().toUpperCase());
-                if (!user.getRole().equals(requestedRole)) {
-                    System.out.println("❌ Role mismatch. User role: " + user.getRole() + ", Requested: " + requestedRole);
+                if (userRole != requestedRole) {
+                    log.info("Role mismatch for {}: user role {}, requested {}", account.getUsername(), userRole, requestedRole);
                     throw new BadCredentialsException("Invalid role for this user");
                 }
             } catch (IllegalArgumentException e) {
@@ -100,113 +143,70 @@ public class AuthService {
             }
         }
         
-        String token = generateJwtToken(user);
-        System.out.println("✅ JWT Token generated successfully");
+        // The configured BCrypt cost went up since this hash was made: upgrade it while we have the password
+        if (passwordHashingService.needsRehash(account.getPassword())) {
+            stage = Timer.start(meterRegistry);
+            userRepository.updatePassword(account.getId(), passwordHashingService.encode(loginRequest.getPassword()));
+            stage.stop(loginStage("rehash"));
+            log.info("Password hash upgraded for {}", account.getUsername());
+        }
         
-        // Update last login
-        user.setLastLogin(LocalDateTime.now());
-        userRepository.save(user);
+        stage = Timer.start(meterRegistry);
+        String token = generateJwtToken(account.getId(), account.getUsername(), userRole, account.getFullName());
+        stage.stop(loginStage("token"));
+        
+        // Written in the background by LastLoginRecorder
+        lastLoginRecorder.record(account.getId(), LocalDateTime.now());
         
-        LoginResponse response = new LoginResponse(token, user.getUsername(), user.getFullName(), 
-                                user.getRole(), user.getId());
-        System.out.println("✅ Login successful for: " + response.getUsername() + ", Role: " + response.getRole());
+        LoginResponse response = new LoginResponse(token, account.getUsername(), account.getFullName(),
+                                userRole, account.getId());
+        log.info("Login successful for {} ({})", response.getUsername(), response.getRole());
         
         return response;
     }
 
+    private Timer loginStage(String stage) {
+        return meterRegistry.timer("auth.login.stage", "stage", stage);
+    }
+
     /**
      * Find user by login ID based on role
      */
     private Optional<User> findUserByLoginId(String loginId, String role) {
-        if (role == null) {
-            return findUserByAnyIdentifier(loginId);
-        }
-        
-        try {
-            UserRole userRole = UserRole.valueOf(role.toUpperCase());
-            switch (userRole) {
-                case STUDENT:
-                    // Students use roll number
-                    return studentRepository.findByRollNumber(loginId)
-                            .map(student -> (User) student);
-                case WARDEN:
-                    // Wardens use employee ID
-                    return wardenRepository.findByEmployeeId(loginId)
-                            .map(warden -> (User) warden);
-                case SECURITY:
-                    // Security uses security ID
-                    return securityRepository.findBySecurityId(loginId)
-                            .map(security -> (User) security);
-                case ADMIN:
-                    // Admins use admin ID
-                    return adminRepository.findByAdminId(loginId)
-                            .map(admin -> (User) admin);
-                default:
-                    return userRepository.findByUsername(loginId);
-            }
-        } catch (IllegalArgumentException e) {
-            // Invalid role, fallback to all methods
-            return findUserByAnyIdentifier(loginId);
-        }
+        return userRepository.findLoginAccount(loginId, loginIdSource(role))
+                .flatMap(account -> userRepository.findById(account.getId()));
     }
 
     /**
-     * Fallback method to find user by any identifier
+     * Which institutional ID a login ID is matched against: the role's own ID when a valid role is given,
+     * otherwise null to try every kind of ID and then the username
      */
-    private Optional<User> findUserByAnyIdentifier(String loginId) {
-        // Try roll number (Student)
-        Optional<Student> student = studentRepository.findByRollNumber(loginId);
-        if (student.isPresent()) {
-            System.out.println("✅ Found student by roll number: " + loginId);
-            return Optional.of(student.get());
-        }
-        
-        // Try employee ID (Warden)
-        Optional<Warden> warden = wardenRepository.findByEmployeeId(loginId);
-        if (warden.isPresent()) {
-            System.out.println("✅ Found warden by employee ID: " + loginId);
-            return Optional.of(warden.get());
-        }
-        
-        // Try security ID (Security)
-        Optional<Security> security = securityRepository.findBySecurityId(loginId);
-        if (security.isPresent()) {
-            System.out.println("✅ Found security by security ID: " + loginId);
-            return Optional.of(security.get());
-        }
-        
-        // Try admin ID (Admin)
-        Optional<Admin> admin = adminRepository.findByAdminId(loginId);
-        if (admin.isPresent()) {
-            System.out.println("✅ Found admin by admin ID: " + loginId);
-            return Optional.of(admin.get());
+    private static String loginIdSource(String role) {
+        if (role == null) {
+            return null;
         }
-        
-        // Finally try username as fallback
-        Optional<User> user = userRepository.findByUsername(loginId);
-        if (user.isPresent()) {
-            System.out.println("✅ Found user by username: " + loginId);
-        } else {
-            System.out.println("❌ No user found for identifier: " + loginId);
+        try {
+            return UserRole.valueOf(role.toUpperCase()).name();
+        } catch (IllegalArgumentException e) {
+            return null;
         }
-        return user;
     }
     
     // NEW METHOD: Verify user identity using institutional ID
     public boolean verifyUserIdentityById(String loginId, String role, String mobileNumber) {
-        System.out.println("🔐 Verifying identity for ID: " + loginId + ", Role: " + role);
+        log.debug("Verifying identity for ID {} ({})", loginId, role);
         
         Optional<User> userOptional = findUserByLoginId(loginId, role);
         
         if (userOptional.isEmpty()) {
-            System.out.println("❌ User not found with ID: " + loginId);
+            log.debug("User not found with ID {}", loginId);
             return false;
         }
         
         User user = userOptional.get();
         boolean mobileMatches = user.getMobileNumber() != null && user.getMobileNumber().equals(mobileNumber);
         
-        System.out.println("📱 Mobile verification - Provided: " + mobileNumber + ", Stored: " + user.getMobileNumber() + ", Match: " + mobileMatches);
+        log.debug("Mobile verification for {}: match={}", loginId, mobileMatches);
         
         return mobileMatches;
     }
@@ -214,7 +214,7 @@ public class AuthService {
     // NEW METHOD: Reset password using institutional ID
     @Transactional
     public void resetPasswordById(String loginId, String role, String newPassword) {
-        System.out.println("🔐 Resetting password for ID: " + loginId + ", Role: " + role);
+        log.debug("Resetting password for ID {} ({})", loginId, role);
         
         User user = findUserByLoginId(loginId, role)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "institutional ID", loginId));
@@ -226,13 +226,13 @@ public class AuthService {
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
         
-        System.out.println("✅ Password reset successfully for user: " + user.getUsername() + " (" + user.getRole() + ")");
+        log.info("Password reset for user {} ({})", user.getUsername(), user.getRole());
     }
     
     // NEW METHOD: Simple password reset without mobile verification (for admin)
     @Transactional
     public void simpleResetPasswordById(String loginId, String role, String newPassword) {
-        System.out.println("🔐 Simple password reset for ID: " + loginId + ", Role: " + role);
+        log.debug("Simple password reset for ID {} ({})", loginId, role);
         
         User user = findUserByLoginId(loginId, role)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "institutional ID", loginId));
@@ -244,12 +244,12 @@ public class AuthService {
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
         
-        System.out.println("✅ Password reset successfully for user: " + user.getUsername() + " (" + user.getRole() + ")");
+        log.info("Password reset for user {} ({})", user.getUsername(), user.getRole());
     }
     
     @Transactional
     public void registerUser(RegisterRequest registerRequest) {
-        System.out.println("🔐 Starting registration for: " + registerRequest.getUsername());
+        log.debug("Starting registration for {}", registerRequest.getUsername());
         
         // Check if username already exists
         if (userRepository.existsByUsername(registerRequest.getUsername())) {
@@ -304,7 +304,7 @@ public class AuthService {
                 throw new IllegalArgumentException("Invalid role specified");
         }
         
-        System.out.println("✅ Registration completed successfully for: " + registerRequest.getUsername());
+        log.info("Registration completed for {}", registerRequest.getUsername());
     }
     
     private void createStudent(RegisterRequest request) {
@@ -332,8 +332,7 @@ public class AuthService {
         }
         
         Student savedStudent = studentRepository.save(student);
-        System.out.println("✅ Student registered: " + savedStudent.getUsername() + " with encrypted password");
-        System.out.println("🎓 Student Roll Number: " + savedStudent.getRollNumber());
+        log.debug("Student registered: {} (roll number {})", savedStudent.getUsername(), savedStudent.getRollNumber());
     }
     
     private void createWarden(RegisterRequest request) {
@@ -348,8 +347,7 @@ public class AuthService {
         warden.setOfficeHours(request.getOfficeHours());
         
         Warden savedWarden = wardenRepository.save(warden);
-        System.out.println("✅ Warden registered: " + savedWarden.getUsername() + " with encrypted password");
-        System.out.println("👨‍🏫 Warden Employee ID: " + savedWarden.getEmployeeId());
+        log.debug("Warden registered: {} (employee ID {})", savedWarden.getUsername(), savedWarden.getEmployeeId());
     }
     
     private void createSecurity(RegisterRequest request) {
@@ -364,8 +362,7 @@ public class AuthService {
         security.setSecurityClearanceLevel(request.getSecurityClearanceLevel());
         
         Security savedSecurity = securityRepository.save(security);
-        System.out.println("✅ Security registered: " + savedSecurity.getUsername() + " with encrypted password");
-        System.out.println("🛡️ Security ID: " + savedSecurity.getSecurityId());
+        log.debug("Security registered: {} (security ID {})", savedSecurity.getUsername(), savedSecurity.getSecurityId());
     }
     
     private void createAdmin(RegisterRequest request) {
@@ -382,8 +379,7 @@ public class AuthService {
         admin.setPermissionLevel("STANDARD"); // Default permission level
         
         Admin savedAdmin = adminRepository.save(admin);
-        System.out.println("✅ Admin registered: " + savedAdmin.getUsername() + " with encrypted password");
-        System.out.println("🔑 Generated Admin ID: " + adminId);
+        log.debug("Admin registered: {} (admin ID {})", savedAdmin.getUsername(), adminId);
     }
     
     private String generateUniqueAdminId() {
@@ -403,46 +399,33 @@ public class AuthService {
         user.setMobileNumber(request.getMobileNumber());
         user.setRole(UserRole.valueOf(request.getRole().toUpperCase()));
         user.setIsActive(true);
-        
-        System.out.println("🔑 Password encrypted for: " + request.getUsername());
-        System.out.println("🔑 Plain: " + request.getPassword() + " -> Encrypted: " + encryptedPassword);
     }
     
-    private String generateJwtToken(User user) {
+    private String generateJwtToken(Long userId, String username, UserRole role, String fullName) {
         try {
             Date now = new Date();
             Date expiryDate = new Date(now.getTime() + jwtExpiration);
             
-            SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-            
             String token = Jwts.builder()
-                    .setSubject(user.getUsername())
-                    .claim("userId", user.getId())
-                    .claim("role", user.getRole().name())
-                    .claim("fullName", user.getFullName())
+                    .setSubject(username)
+                    .claim("userId", userId)
+                    .claim("role", role.name())
+                    .claim("fullName", fullName)
                     .setIssuedAt(now)
                     .setExpiration(expiryDate)
-                    .signWith(key, SignatureAlgorithm.HS256)
+                    .signWith(jwtSigningKey, SignatureAlgorithm.HS256)
                     .compact();
             
-            System.out.println("✅ JWT Token generated for user: " + user.getUsername());
-            System.out.println("🔑 User role in token: " + user.getRole().name());
-            
             return token;
         } catch (Exception e) {
-            System.err.println("❌ JWT Generation Error: " + e.getMessage());
+            log.error("JWT generation failed for {}", username, e);
             throw new RuntimeException("JWT token generation failed", e);
         }
     }
     
     public Claims validateToken(String token) {
         try {
-            SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-            return Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            return jwtTokenVerifier.verify(token);
         } catch (Exception e) {
             throw new BadCredentialsException("Invalid JWT token");
         }
@@ -487,6 +470,14 @@ public class AuthService {
                 .orElseThrow(() -> new ResourceNotFoundException("Student", "username", username));
     }
     
+    /**
+     * Get Student entity for the request principal (primary-key lookup, no token parsing)
+     */
+    public Student getAuthenticatedStudent(AuthenticatedUser principal) {
+        return studentRepository.findById(principal.getUserId())
+                .orElseThrow(() -> new ResourceNotFoundException("Student", "id", principal.getUserId()));
+    }
+    
     /**
      * Get Warden entity by token (for warden-specific operations)
      */
@@ -525,7 +516,7 @@ public class AuthService {
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
         
-        System.out.println("✅ Password changed successfully for user: " + user.getUsername());
+        log.info("Password changed for user {}", user.getUsername());
     }
     
     /**
@@ -542,7 +533,7 @@ public class AuthService {
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
         
-        System.out.println("✅ Password reset successfully for user: " + username);
+        log.info("Password reset for user {}", username);
     }
     
     /**
@@ -590,7 +581,7 @@ public class AuthService {
         user.setIsActive(false);
         userRepository.save(user);
         
-        System.out.println("✅ User deactivated: " + user.getUsername());
+        log.info("User deactivated: {}", user.getUsername());
     }
     
     /**
@@ -603,7 +594,7 @@ public class AuthService {
         user.setIsActive(true);
         userRepository.save(user);
         
-        System.out.println("✅ User activated: " + user.getUsername());
+        log.info("User activated: {}", user.getUsername());
     }
     
     /**
@@ -0,0 +1,96 @@
+package com.mit.outpass.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the result of a request carrying an Idempotency-Key so a retry (flaky gate Wi-Fi)
+ * gets the original response back instead of repeating the action.
+ * Keys are scoped per user; reusing a key for a different action or outpass is rejected.
+ * Failures are not remembered, so a retry after an error runs the action again.
+ */
+@Component
+public class IdempotencyCache {
+
+    private final Cache<String, Entry> results;
+
+    public IdempotencyCache(@Value("${app.idempotency.ttl-hours:24}") long ttlHours,
+                            @Value("${app.idempotency.max-size:50000}") long maxSize) {
+        this.results = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofHours(ttlHours))
+                .build();
+    }
+
+    /**
+     * Run {@code action} once per (userId, key). Concurrent duplicates wait for the first call and share its result.
+     * {@code fingerprint} identifies what the key was used for, e.g. "departure:42".
+     * The action runs outside the cache: only a pending future is stored while it is in flight.
+     */
+    public <T> Result<T> execute(Long userId, String key, String fingerprint, Supplier<T> action) {
+        String cacheKey = userId + ":" + key;
+        Entry entry = new Entry(fingerprint, new CompletableFuture<>());
+        Entry existing = results.asMap().putIfAbsent(cacheKey, entry);
+        if (existing != null) {
+            if (!existing.fingerprint.equals(fingerprint)) {
+                throw new IllegalArgumentException("Idempotency-Key was already used for a different request");
+            }
+            return new Result<>(await(existing), true);
+        }
+
+        T value;
+        try {
+            value = action.get();
+        } catch (RuntimeException | Error e) {
+            // Forget the key first so a later retry runs again, then release anyone waiting on this call
+            results.asMap().remove(cacheKey, entry);
+            entry.value.completeExceptionally(e);
+            throw e;
+        }
+        entry.value.complete(value);
+        return new Result<>(value, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T await(Entry entry) {
+        try {
+            return (T) entry.value.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public static final class Result<T> {
+        private final T value;
+        private final boolean replayed;
+
+        private Result(T value, boolean replayed) {
+            this.value = value;
+            this.replayed = replayed;
+        }
+
+        public T getValue() { return value; }
+
+        public boolean isReplayed() { return replayed; }
+    }
+
+    private static final class Entry {
+        private final String fingerprint;
+        private final CompletableFuture<Object> value;
+
+        private Entry(String fingerprint, CompletableFuture<Object> value) {
+            this.fingerprint = fingerprint;
+            this.value = value;
+        }
+    }
+}
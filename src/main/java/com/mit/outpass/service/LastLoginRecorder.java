@@ -0,0 +1,79 @@
+package com.mit.outpass.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Takes users.last_login writes off the login path. Logins are collected in memory (latest per user)
+ * and written periodically as one JDBC batch in one transaction; a user logging in several times between
+ * flushes costs one row of the batch.
+ * last_login can lag by up to one flush interval.
+ */
+@Component
+public class LastLoginRecorder {
+
+    private static final Logger log = LoggerFactory.getLogger(LastLoginRecorder.class);
+
+    private static final String UPDATE_LAST_LOGIN = "UPDATE users SET last_login = ? WHERE id = ?";
+
+    private final Map<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public LastLoginRecorder(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public void record(Long userId, LocalDateTime loginTime) {
+        pending.merge(userId, loginTime, (current, next) -> next.isAfter(current) ? next : current);
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.last-login.flush-ms:5000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        // Sorted by id so concurrent flushes (several nodes) lock users rows in the same order
+        Map<Long, LocalDateTime> batch = new TreeMap<>();
+        for (Long userId : pending.keySet()) {
+            LocalDateTime loginTime = pending.remove(userId);
+            if (loginTime != null) {
+                batch.put(userId, loginTime);
+            }
+        }
+
+        try {
+            List<Object[]> rows = new ArrayList<>(batch.size());
+            batch.forEach((userId, loginTime) -> rows.add(new Object[] {Timestamp.valueOf(loginTime), userId}));
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPDATE_LAST_LOGIN, rows));
+            log.debug("Recorded last login for {} users", batch.size());
+        } catch (RuntimeException e) {
+            // Keep them for the next flush unless a newer login has been recorded meanwhile
+            log.error("Failed to record last login for {} users, will retry", batch.size(), e);
+            batch.forEach(this::record);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
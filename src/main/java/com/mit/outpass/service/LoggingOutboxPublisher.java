@@ -0,0 +1,25 @@
+package com.mit.outpass.service;
+
+import com.mit.outpass.entity.OutboxEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Default publisher until a broker is wired in: records each event in the application log
+ */
+@Component
+public class LoggingOutboxPublisher implements OutboxPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingOutboxPublisher.class);
+
+    @Override
+    public void publish(List<OutboxEvent> batch) {
+        for (OutboxEvent event : batch) {
+            log.debug("Outbox event {} {}#{}: {}", event.getEventType(), event.getAggregateType(),
+                      event.getAggregateId(), event.getPayload());
+        }
+    }
+}
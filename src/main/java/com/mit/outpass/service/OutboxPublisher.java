@@ -0,0 +1,14 @@
+package com.mit.outpass.service;
+
+import com.mit.outpass.entity.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Delivery side of the outbox. OutboxRelay hands over batches in id order and marks them
+ * published only if this returns normally; throwing leaves the batch to be retried (at-least-once).
+ */
+public interface OutboxPublisher {
+
+    void publish(List<OutboxEvent> batch) throws Exception;
+}
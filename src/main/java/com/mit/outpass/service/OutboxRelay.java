@@ -0,0 +1,123 @@
+package com.mit.outpass.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mit.outpass.dto.OutpassStatusEvent;
+import com.mit.outpass.entity.OutboxEvent;
+import com.mit.outpass.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Transactional outbox for outpass status changes.
+ * Each OutpassStatusEvent is written to outbox_events just before its transaction commits, so the
+ * row exists if and only if the status change does. The relay then drains unpublished rows in id
+ * order and hands them to the OutboxPublisher in batches. Batches are published one at a time even
+ * with several instances (see OutboxEventRepository.lockNextUnpublished), so order holds across all events.
+ */
+@Service
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static final String OUTPASS_AGGREGATE = "Outpass";
+    private static final String STATUS_CHANGED = "OutpassStatusChanged";
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxPublisher outboxPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.outbox.max-batches-per-run:10}")
+    private int maxBatchesPerRun;
+
+    @Value("${app.outbox.retention-days:7}")
+    private int retentionDays;
+
+    public OutboxRelay(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Runs inside the publishing transaction (BEFORE_COMMIT): a failure here rolls the status change back too
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void record(OutpassStatusEvent event) {
+        try {
+            outboxEventRepository.save(new OutboxEvent(OUTPASS_AGGREGATE, event.getOutpassId(), STATUS_CHANGED,
+                    objectMapper.writeValueAsString(event)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize outbox event for outpass " + event.getOutpassId(), e);
+        }
+    }
+
+    /**
+     * Drain the outbox: keep taking batches until one comes back short, delivery fails or the run has
+     * taken max-batches-per-run batches; a larger backlog continues on the next run so the other
+     * scheduled jobs get their turn.
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.relay-interval-ms:1000}")
+    public void relay() {
+        int delivered;
+        int batches = 0;
+        do {
+            delivered = relayBatch();
+            batches++;
+        } while (delivered == batchSize && batches < maxBatchesPerRun);
+    }
+
+    /**
+     * Deliver one batch and mark it published in the same transaction; rows stay locked
+     * (other relays wait on them) until the publisher has accepted them.
+     * Returns how many events were delivered, 0 when the outbox is empty or delivery failed.
+     */
+    public int relayBatch() {
+        try {
+            Integer delivered = transactionTemplate.execute(status -> {
+                List<OutboxEvent> batch = outboxEventRepository.lockNextUnpublished(batchSize);
+                if (batch.isEmpty()) {
+                    return 0;
+                }
+                try {
+                    outboxPublisher.publish(batch);
+                } catch (Exception e) {
+                    throw new IllegalStateException("Outbox publisher rejected batch starting at id " + batch.get(0).getId(), e);
+                }
+                outboxEventRepository.markPublished(batch.stream().map(OutboxEvent::getId).toList(), LocalDateTime.now());
+                return batch.size();
+            });
+            return delivered != null ? delivered : 0;
+        } catch (RuntimeException e) {
+            // Batch stays unpublished and is retried on the next run
+            log.warn("Outbox relay failed, will retry: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    @Scheduled(cron = "${app.outbox.cleanup-cron:0 30 3 * * *}")
+    public void purgePublished() {
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minusDays(retentionDays)));
+        log.info("Outbox cleanup removed {} published events", deleted);
+    }
+}
@@ -0,0 +1,162 @@
+package com.mit.outpass.service;
+
+import com.mit.outpass.dto.OutpassStatusEvent;
+import com.mit.outpass.entity.Outpass;
+import com.mit.outpass.enums.OutpassStatus;
+import com.mit.outpass.repository.OutpassRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+
+/**
+ * Expires approved outpasses that were never used, without scanning the table.
+ * Approved outpasses sit in a priority queue ordered by expectedReturnDate and each tick only looks at its head;
+ * due ones still APPROVED move to EXPIRED in a conditional bulk UPDATE, so entries for outpasses used or
+ * cancelled in the meantime are simply ignored. Overdue ACTIVE outpasses are derived state
+ * (findOverdueActiveOutpasses); isLateReturn is only set by the gate when the return is marked.
+ */
+@Component
+public class OutpassExpiryScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(OutpassExpiryScheduler.class);
+
+    private static final int BATCH_SIZE = 500;
+    private static final long RETRY_DELAY_SECONDS = 30;
+
+    private final PriorityBlockingQueue<Deadline> deadlines = new PriorityBlockingQueue<>();
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private OutpassRepository outpassRepository;
+
+    @Autowired
+    private OutpassStatusCounters statusCounters;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    public OutpassExpiryScheduler(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Queue the approved outpasses at startup, and again periodically to pick up rows written by
+     * other instances or by hand. Only the small approved subset of outpasses is read.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.outpass.expiry.resync-ms:900000}",
+               fixedDelayString = "${app.outpass.expiry.resync-ms:900000}")
+    public void resync() {
+        int added = 0;
+        for (Object[] row : outpassRepository.findApprovedReturnDeadlines()) {
+            if (enqueue((Long) row[0], (LocalDateTime) row[1])) {
+                added++;
+            }
+        }
+        log.info("Expiry queue synced: {} added, {} queued", added, queued.size());
+    }
+
+    /**
+     * Track a newly approved outpass; takes effect once the current transaction commits
+     */
+    public void schedule(Long outpassId, LocalDateTime expectedReturnDate) {
+        if (outpassId == null || expectedReturnDate == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(outpassId, expectedReturnDate);
+                }
+            });
+        } else {
+            enqueue(outpassId, expectedReturnDate);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.outpass.expiry.tick-ms:1000}")
+    public void tick() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> due = new ArrayList<>();
+        // Only this thread polls, so anything polled after a due peek is due as well
+        Deadline head;
+        while ((head = deadlines.peek()) != null && !head.dueAt.isAfter(now)) {
+            Deadline next = deadlines.poll();
+            queued.remove(next.outpassId);
+            due.add(next.outpassId);
+            if (due.size() == BATCH_SIZE) {
+                expire(due, now);
+                due = new ArrayList<>();
+            }
+        }
+        if (!due.isEmpty()) {
+            expire(due, now);
+        }
+    }
+
+    private void expire(List<Long> ids, LocalDateTime now) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Outpass> unused = outpassRepository.lockUnusedApprovedOutpasses(ids, now);
+                if (unused.isEmpty()) {
+                    return;
+                }
+                outpassRepository.markExpired(unused.stream().map(Outpass::getId).toList());
+                unused.forEach(o -> {
+                    statusCounters.recordTransition(o.getHostelName(), OutpassStatus.APPROVED, OutpassStatus.EXPIRED);
+                    eventPublisher.publishEvent(new OutpassStatusEvent(o.getId(), o.getStudent().getId(),
+                            o.getHostelName(), OutpassStatus.APPROVED, OutpassStatus.EXPIRED));
+                });
+                log.info("Expiry tick: {} approved outpasses expired", unused.size());
+            });
+        } catch (RuntimeException e) {
+            // Put the batch back a little later so a failing batch does not spin
+            log.error("Expiry batch of {} outpasses failed, retrying in {}s", ids.size(), RETRY_DELAY_SECONDS, e);
+            LocalDateTime retryAt = now.plusSeconds(RETRY_DELAY_SECONDS);
+            ids.forEach(id -> enqueue(id, retryAt));
+        }
+    }
+
+    private boolean enqueue(Long outpassId, LocalDateTime dueAt) {
+        if (!queued.add(outpassId)) {
+            return false;
+        }
+        deadlines.offer(new Deadline(outpassId, dueAt));
+        return true;
+    }
+
+    private static final class Deadline implements Comparable<Deadline> {
+        private final Long outpassId;
+        private final LocalDateTime dueAt;
+
+        private Deadline(Long outpassId, LocalDateTime dueAt) {
+            this.outpassId = outpassId;
+            this.dueAt = dueAt;
+        }
+
+        @Override
+        public int compareTo(Deadline other) {
+            int byTime = dueAt.compareTo(other.dueAt);
+            return byTime != 0 ? byTime : outpassId.compareTo(other.outpassId);
+        }
+    }
+}
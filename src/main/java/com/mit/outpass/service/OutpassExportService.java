@@ -0,0 +1,148 @@
+package com.mit.outpass.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mit.outpass.dto.OutpassResponse;
+import com.mit.outpass.enums.OutpassStatus;
+import com.mit.outpass.repository.OutpassRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Writes outpass history straight from a database cursor to an output stream, one row at a time,
+ * so memory use is the same for a thousand rows or millions.
+ */
+@Service
+public class OutpassExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(OutpassExportService.class);
+
+    // Used when the caller leaves one end of the date range open
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private static final String CSV_HEADER = "id,studentName,studentRollNumber,hostelName,status,reason,destination," +
+            "leaveStartDate,expectedReturnDate,createdAt,reviewedByName,wardenComments,actualDepartureTime," +
+            "actualReturnTime,isLateReturn,lateReturnReason,securityComments,emergencyContactName," +
+            "emergencyContactNumber,emergencyContactRelation";
+
+    @Autowired
+    private OutpassRepository outpassRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() { return contentType; }
+
+        public String getExtension() { return extension; }
+
+        public static Format of(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported export format '" + value + "', use csv or ndjson");
+            }
+        }
+    }
+
+    /**
+     * Reject a date range that cannot match anything; call before the response is committed
+     */
+    public static void checkRange(LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+    }
+
+    /**
+     * Export outpasses created in [from, to), optionally limited to one hostel and status, oldest first.
+     * Returns the number of rows written.
+     */
+    @Transactional(readOnly = true)
+    public long export(LocalDateTime from, LocalDateTime to, String hostelName, OutpassStatus status,
+                       Format format, OutputStream out) throws IOException {
+        checkRange(from, to);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long rows = 0;
+
+        try (Stream<OutpassResponse> outpasses = outpassRepository.streamForExport(
+                from != null ? from : EARLIEST, to != null ? to : LATEST, hostelName, status)) {
+            if (format == Format.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+            Iterator<OutpassResponse> iterator = outpasses.iterator();
+            while (iterator.hasNext()) {
+                OutpassResponse outpass = iterator.next();
+                if (format == Format.CSV) {
+                    writeCsvRow(writer, outpass);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(outpass));
+                    writer.write('\n');
+                }
+                rows++;
+            }
+        }
+
+        writer.flush();
+        log.info("Exported {} outpasses as {} (hostel={}, status={}, from={}, to={})",
+                 rows, format, hostelName, status, from, to);
+        return rows;
+    }
+
+    private static void writeCsvRow(Writer writer, OutpassResponse o) throws IOException {
+        Object[] values = {
+                o.getId(), o.getStudentName(), o.getStudentRollNumber(), o.getHostelName(), o.getStatus(),
+                o.getReason(), o.getDestination(), o.getLeaveStartDate(), o.getExpectedReturnDate(),
+                o.getCreatedAt(), o.getReviewedByName(), o.getWardenComments(), o.getActualDepartureTime(),
+                o.getActualReturnTime(), o.getIsLateReturn(), o.getLateReturnReason(), o.getSecurityComments(),
+                o.getEmergencyContactName(), o.getEmergencyContactNumber(), o.getEmergencyContactRelation()
+        };
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writer.write(csvField(values[i].toString()));
+            }
+        }
+        writer.write('\n');
+    }
+
+    private static String csvField(String value) {
+        // Free-text fields (reasons, comments) come from users: a leading =, +, -, @, tab or CR would make
+        // a spreadsheet evaluate the cell as a formula, so such values are prefixed with ' to stay text
+        if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
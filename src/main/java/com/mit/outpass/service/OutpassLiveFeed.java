@@ -0,0 +1,171 @@
+package com.mit.outpass.service;
+
+import com.mit.outpass.dto.OutpassStatusEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fans committed outpass status changes out to Server-Sent Events subscribers
+ * (gate terminals and warden dashboards), so screens update without polling.
+ *
+ * Publishing only enqueues: each subscriber has its own bounded backlog, drained by a small sender
+ * pool, so a slow or half-open client never holds up the gate or warden request that made the change.
+ * A subscriber whose backlog fills up is dropped and reconnects through the client's polling fallback.
+ */
+@Service
+public class OutpassLiveFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(OutpassLiveFeed.class);
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ThreadPoolExecutor senders;
+    private final int backlogCapacity;
+
+    @Value("${app.live.sse-timeout-ms:1800000}")
+    private long timeoutMs;
+
+    public OutpassLiveFeed(@Value("${app.live.sender-threads:2}") int senderThreads,
+                           @Value("${app.live.subscriber-backlog:64}") int backlogCapacity) {
+        this.backlogCapacity = backlogCapacity;
+        // At most one drain task per subscriber is ever pending, so the task queue is bounded by the subscriber count
+        this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("live-feed-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+    }
+
+    /**
+     * Open a feed; a null hostel receives every hostel (gate terminals)
+     */
+    public SseEmitter subscribe(String hostelName) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, hostelName, backlogCapacity);
+        subscribers.add(subscriber);
+
+        emitter.onCompletion(() -> close(subscriber));
+        emitter.onTimeout(() -> {
+            close(subscriber);
+            emitter.complete();
+        });
+        emitter.onError(e -> close(subscriber));
+
+        // Tell the client it is connected so it can drop its polling fallback
+        enqueue(subscriber, SseEmitter.event().name("ready").data("ok"));
+        log.debug("Live feed subscriber added for {} ({} open)", hostelName != null ? hostelName : "all hostels", subscribers.size());
+        return emitter;
+    }
+
+    /**
+     * Runs only once the transition's transaction has committed, so subscribers never see rolled-back changes
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStatusChanged(OutpassStatusEvent event) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.hostelName == null || subscriber.hostelName.equals(event.getHostelName())) {
+                enqueue(subscriber, SseEmitter.event()
+                        .name("outpass")
+                        .id(String.valueOf(event.getOutpassId()))
+                        .data(event, MediaType.APPLICATION_JSON));
+            }
+        }
+    }
+
+    // Keeps idle connections open through proxies and prunes clients that went away
+    @Scheduled(fixedDelayString = "${app.live.heartbeat-ms:25000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            enqueue(subscriber, SseEmitter.event().comment("heartbeat"));
+        }
+    }
+
+    private void enqueue(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (subscriber.closed.get()) {
+            return;
+        }
+        if (!subscriber.backlog.offer(event)) {
+            // Still stuck on earlier events; the emitter is completed by the drain that is blocked on it
+            log.debug("Dropping live feed subscriber for {}: {} events behind", subscriber.hostelName, backlogCapacity);
+            close(subscriber);
+            return;
+        }
+        scheduleDrain(subscriber);
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        if (!subscriber.draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            senders.execute(() -> drain(subscriber));
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            subscriber.draining.set(false);
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        SseEmitter.SseEventBuilder event;
+        while ((event = subscriber.backlog.poll()) != null || subscriber.closed.get()) {
+            if (subscriber.closed.get()) {
+                subscriber.emitter.complete();
+                return;
+            }
+            try {
+                subscriber.emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                close(subscriber);
+                subscriber.emitter.completeWithError(e);
+                return;
+            }
+        }
+        subscriber.draining.set(false);
+        // An event may have arrived between the last poll and clearing the flag
+        if (!subscriber.backlog.isEmpty()) {
+            scheduleDrain(subscriber);
+        }
+    }
+
+    private void close(Subscriber subscriber) {
+        subscriber.closed.set(true);
+        subscribers.remove(subscriber);
+        subscriber.backlog.clear();
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final String hostelName;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> backlog;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter, String hostelName, int backlogCapacity) {
+            this.emitter = emitter;
+            this.hostelName = hostelName;
+            this.backlog = new ArrayBlockingQueue<>(backlogCapacity);
+        }
+    }
+}
@@ -1,7 +1,13 @@
 package com.mit.outpass.service;
 
+import com.mit.outpass.config.CampusClock;
+import com.mit.outpass.controller.SecurityController;
+import com.mit.outpass.controller.StudentController;
+import com.mit.outpass.dto.BulkReviewResult;
+import com.mit.outpass.dto.CursorPage;
 import com.mit.outpass.dto.OutpassRequest;
 import com.mit.outpass.dto.OutpassResponse;
+import com.mit.outpass.dto.OutpassStatusEvent;
 import com.mit.outpass.entity.Outpass;
 import com.mit.outpass.entity.Security;
 import com.mit.outpass.entity.Student;
@@ -12,12 +18,24 @@ import com.mit.outpass.repository.OutpassRepository;
 import com.mit.outpass.repository.SecurityRepository;
 import com.mit.outpass.repository.StudentRepository;
 import com.mit.outpass.repository.WardenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Service class for outpass operations
@@ -25,9 +43,16 @@ import java.util.stream.Collectors;
 @Service
 public class OutpassService {
     
+    private static final Logger log = LoggerFactory.getLogger(OutpassService.class);
+    
+    private static final int DASHBOARD_RECENT_LIMIT = 5;
+    
     @Autowired
     private OutpassRepository outpassRepository;
     
+    @Autowired
+    private CampusClock campusClock;
+    
     @Autowired
     private StudentRepository studentRepository;
     
@@ -37,17 +62,25 @@ public class OutpassService {
     @Autowired
     private SecurityRepository securityRepository;
     
+    @Autowired
+    private OutpassStatusCounters statusCounters;
+    
+    @Autowired
+    private OutpassExpiryScheduler expiryScheduler;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     /**
      * Apply for new outpass
      */
    /**
  * Apply for new outpass
  */
+@Transactional
 public OutpassResponse applyOutpass(Long studentId, OutpassRequest request) {
-    System.out.println("📝 Applying outpass for student ID: " + studentId);
-    System.out.println("📅 Leave Start Date: " + request.getLeaveStartDate());
-    System.out.println("📅 Expected Return Date: " + request.getExpectedReturnDate());
-    System.out.println("📅 Current Time: " + LocalDateTime.now());
+    log.debug("Applying outpass for student {}: leave {} -> return {}",
+              studentId, request.getLeaveStartDate(), request.getExpectedReturnDate());
     
     // Enhanced date validation with better error messages
     if (request.getLeaveStartDate() == null) {
@@ -78,6 +111,7 @@ public OutpassResponse applyOutpass(Long studentId, OutpassRequest request) {
 
     Outpass outpass = new Outpass();
     outpass.setStudent(student);
+    outpass.setHostelName(student.getHostelName());
     outpass.setReason(request.getReason());
     outpass.setLeaveStartDate(request.getLeaveStartDate());
     outpass.setExpectedReturnDate(request.getExpectedReturnDate());
@@ -88,8 +122,12 @@ public OutpassResponse applyOutpass(Long studentId, OutpassRequest request) {
     outpass.setStatus(OutpassStatus.PENDING);
     outpass.setCreatedAt(LocalDateTime.now());
 
+    // No pre-check: the IDENTITY insert runs here and ux_outpasses_one_live_per_student rejects a second
+    // live outpass atomically (DataIntegrityViolationException, answered with 409)
     Outpass savedOutpass = outpassRepository.save(outpass);
-    System.out.println("✅ Outpass created successfully with ID: " + savedOutpass.getId());
+    statusChanged(savedOutpass, null);
+    MDC.put("outpassId", String.valueOf(savedOutpass.getId()));
+    log.info("Outpass {} created for student {}", savedOutpass.getId(), studentId);
 
     return convertToResponse(savedOutpass);
 }
@@ -97,6 +135,7 @@ public OutpassResponse applyOutpass(Long studentId, OutpassRequest request) {
      * Edit existing outpass (only if pending)
      */
     public OutpassResponse editOutpass(Long outpassId, Long studentId, OutpassRequest request) {
+        MDC.put("outpassId", String.valueOf(outpassId));
         Outpass outpass = outpassRepository.findById(outpassId)
                 .orElseThrow(() -> new ResourceNotFoundException("Outpass", "id", outpassId));
         
@@ -131,7 +170,9 @@ public OutpassResponse applyOutpass(Long studentId, OutpassRequest request) {
     /**
      * Cancel outpass (only if pending or approved)
      */
+    @Transactional
     public void cancelOutpass(Long outpassId, Long studentId) {
+        MDC.put("outpassId", String.valueOf(outpassId));
         Outpass outpass = outpassRepository.findById(outpassId)
                 .orElseThrow(() -> new ResourceNotFoundException("Outpass", "id", outpassId));
         
@@ -145,34 +186,82 @@ public OutpassResponse applyOutpass(Long studentId, OutpassRequest request) {
             throw new IllegalStateException("Outpass cannot be cancelled in current status: " + outpass.getStatus());
         }
         
+        OutpassStatus previous = outpass.getStatus();
         outpass.setStatus(OutpassStatus.CANCELLED);
         outpassRepository.save(outpass);
+        statusChanged(outpass, previous);
     }
     
     /**
      * Get student's outpasses
      */
     public List<OutpassResponse> getStudentOutpasses(Long studentId) {
-        List<Outpass> outpasses = outpassRepository.findRecentOutpassesByStudentId(studentId);
-        return outpasses.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return outpassRepository.findResponsesByStudentId(studentId);
+    }
+    
+    /**
+     * Student dashboard: per-status counts from one GROUP BY plus the newest few outpasses.
+     * Both queries use the (student_id, created_at) index, so the cost does not grow with the student's history.
+     */
+    public StudentController.DashboardData getStudentDashboard(Long studentId) {
+        Map<OutpassStatus, Integer> counts = new EnumMap<>(OutpassStatus.class);
+        int total = 0;
+        for (Object[] row : outpassRepository.countByStatusForStudent(studentId)) {
+            int count = ((Number) row[1]).intValue();
+            counts.put((OutpassStatus) row[0], count);
+            total += count;
+        }
+        
+        CursorPage.Key newest = CursorPage.descending(null);
+        List<OutpassResponse> recent = outpassRepository.findOutpassesByStudentIdPage(
+                studentId, newest.getTime(), newest.getId(), PageRequest.of(0, DASHBOARD_RECENT_LIMIT));
+        
+        StudentController.DashboardData dashboardData = new StudentController.DashboardData();
+        dashboardData.setTotalOutpasses(total);
+        dashboardData.setPendingOutpasses(counts.getOrDefault(OutpassStatus.PENDING, 0));
+        dashboardData.setApprovedOutpasses(counts.getOrDefault(OutpassStatus.APPROVED, 0));
+        dashboardData.setActiveOutpasses(counts.getOrDefault(OutpassStatus.ACTIVE, 0));
+        dashboardData.setCompletedOutpasses(counts.getOrDefault(OutpassStatus.COMPLETED, 0));
+        dashboardData.setRejectedOutpasses(counts.getOrDefault(OutpassStatus.REJECTED, 0));
+        dashboardData.setRecentOutpasses(recent);
+        return dashboardData;
+    }
+    
+    /**
+     * Get one page of a student's outpasses, newest first
+     */
+    public CursorPage<OutpassResponse> getStudentOutpassesPage(Long studentId, String cursor, Integer size) {
+        int pageSize = CursorPage.clampSize(size);
+        CursorPage.Key key = CursorPage.descending(cursor);
+        List<OutpassResponse> rows = outpassRepository.findOutpassesByStudentIdPage(
+                studentId, key.getTime(), key.getId(), PageRequest.of(0, pageSize + 1));
+        return CursorPage.of(rows, pageSize, OutpassResponse::getCreatedAt, OutpassResponse::getId);
     }
     
     /**
      * Get all pending outpasses (for warden)
      */
     public List<OutpassResponse> getPendingOutpasses() {
-        List<Outpass> outpasses = outpassRepository.findPendingOutpasses();
-        return outpasses.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return outpassRepository.findPendingResponses();
+    }
+    
+    /**
+     * Get one page of pending outpasses, oldest application first
+     */
+    public CursorPage<OutpassResponse> getPendingOutpassesPage(String cursor, Integer size) {
+        int pageSize = CursorPage.clampSize(size);
+        CursorPage.Key key = CursorPage.ascending(cursor);
+        List<OutpassResponse> rows = outpassRepository.findPendingOutpassesPage(
+                key.getTime(), key.getId(), PageRequest.of(0, pageSize + 1));
+        return CursorPage.of(rows, pageSize, OutpassResponse::getCreatedAt, OutpassResponse::getId);
     }
     
     /**
      * Review outpass (approve/reject by warden)
      */
+    @Transactional
     public OutpassResponse reviewOutpass(Long outpassId, Long wardenId, boolean approved, String comments) {
+        MDC.put("outpassId", String.valueOf(outpassId));
         Outpass outpass = outpassRepository.findById(outpassId)
                 .orElseThrow(() -> new ResourceNotFoundException("Outpass", "id", outpassId));
         
@@ -191,49 +280,109 @@ public OutpassResponse applyOutpass(Long studentId, OutpassRequest request) {
         outpass.setReviewedAt(LocalDateTime.now());
         
         outpass = outpassRepository.save(outpass);
+        statusChanged(outpass, OutpassStatus.PENDING);
+        if (approved) {
+            expiryScheduler.schedule(outpass.getId(), outpass.getExpectedReturnDate());
+        }
+        log.info("Outpass {} {} by warden {}", outpassId, outpass.getStatus(), wardenId);
         return convertToResponse(outpass);
     }
     
+    /**
+     * Approve or reject many pending outpasses of one hostel in a single transaction and UPDATE.
+     * Ids that are unknown, belong to another hostel or are no longer pending are skipped and
+     * reported individually; results come back in request order.
+     */
+    @Transactional
+    public List<BulkReviewResult> reviewOutpasses(List<Long> outpassIds, Long wardenId, String hostelName,
+                                                  boolean approved, String comments) {
+        Set<Long> requested = new LinkedHashSet<>(outpassIds);
+        Map<Long, Outpass> found = new HashMap<>();
+        for (Outpass outpass : outpassRepository.lockAllByIdIn(requested)) {
+            found.put(outpass.getId(), outpass);
+        }
+        
+        OutpassStatus newStatus = approved ? OutpassStatus.APPROVED : OutpassStatus.REJECTED;
+        Map<Long, BulkReviewResult> results = new HashMap<>();
+        List<Outpass> eligible = new ArrayList<>();
+        for (Long id : requested) {
+            Outpass outpass = found.get(id);
+            if (outpass == null) {
+                results.put(id, new BulkReviewResult(id, false, null, "Outpass not found"));
+            } else if (!hostelName.equals(outpass.getHostelName())) {
+                results.put(id, new BulkReviewResult(id, false, null, "Not authorized to review this outpass"));
+            } else if (outpass.getStatus() != OutpassStatus.PENDING) {
+                results.put(id, new BulkReviewResult(id, false, outpass.getStatus(), "Only pending outpasses can be reviewed"));
+            } else {
+                eligible.add(outpass);
+                results.put(id, new BulkReviewResult(id, true, newStatus, null));
+            }
+        }
+        
+        if (!eligible.isEmpty()) {
+            List<Long> eligibleIds = eligible.stream().map(Outpass::getId).toList();
+            outpassRepository.reviewPendingInHostel(eligibleIds, hostelName, newStatus,
+                    wardenRepository.getReferenceById(wardenId), comments, LocalDateTime.now());
+            for (Outpass outpass : eligible) {
+                statusChanged(outpass.getId(), outpass.getStudent().getId(), outpass.getHostelName(),
+                              OutpassStatus.PENDING, newStatus);
+                if (approved) {
+                    expiryScheduler.schedule(outpass.getId(), outpass.getExpectedReturnDate());
+                }
+            }
+        }
+        
+        log.info("Bulk review by warden {}: {} of {} outpasses {}", wardenId, eligible.size(), requested.size(), newStatus);
+        return outpassIds.stream().distinct().map(results::get).toList();
+    }
+    
     /**
      * Get approved outpasses (for security)
      */
     public List<OutpassResponse> getApprovedOutpasses() {
-        List<Outpass> outpasses = outpassRepository.findApprovedOutpasses();
-        return outpasses.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return outpassRepository.findApprovedResponses();
+    }
+    
+    /**
+     * Get one page of approved outpasses, earliest leave start first
+     */
+    public CursorPage<OutpassResponse> getApprovedOutpassesPage(String cursor, Integer size) {
+        int pageSize = CursorPage.clampSize(size);
+        CursorPage.Key key = CursorPage.ascending(cursor);
+        List<OutpassResponse> rows = outpassRepository.findApprovedOutpassesPage(
+                key.getTime(), key.getId(), PageRequest.of(0, pageSize + 1));
+        return CursorPage.of(rows, pageSize, OutpassResponse::getLeaveStartDate, OutpassResponse::getId);
     }
     
     /**
      * Mark student departure
      */
+    @Transactional
     public OutpassResponse markDeparture(Long outpassId, Long securityId, String comments) {
-        Outpass outpass = outpassRepository.findById(outpassId)
-                .orElseThrow(() -> new ResourceNotFoundException("Outpass", "id", outpassId));
-        
+        MDC.put("outpassId", String.valueOf(outpassId));
         Security security = securityRepository.findById(securityId)
                 .orElseThrow(() -> new ResourceNotFoundException("Security", "id", securityId));
         
-        // Check if outpass is approved
-        if (outpass.getStatus() != OutpassStatus.APPROVED) {
-            throw new IllegalStateException("Only approved outpasses can be marked for departure");
+        // Check-and-set in one statement so two gates cannot both mark the same departure
+        int updated = outpassRepository.markDepartureIfApproved(outpassId, security, LocalDateTime.now(), comments);
+        Outpass outpass = outpassRepository.findById(outpassId)
+                .orElseThrow(() -> new ResourceNotFoundException("Outpass", "id", outpassId));
+        if (updated == 0) {
+            throw new IllegalStateException("Only approved outpasses can be marked for departure. Current status: " + outpass.getStatus());
         }
         
-        // Update outpass
-        outpass.setStatus(OutpassStatus.ACTIVE);
-        outpass.setDepartureMarkedBy(security);
-        outpass.setActualDepartureTime(LocalDateTime.now());
-        outpass.setSecurityComments(comments);
-        
-        outpass = outpassRepository.save(outpass);
+        statusChanged(outpass, OutpassStatus.APPROVED);
+        log.info("Departure marked for outpass {} by security {}", outpassId, securityId);
         return convertToResponse(outpass);
     }
     
     /**
      * Mark student return
      */
+@Transactional
 public OutpassResponse markReturn(Long outpassId, Long securityId, String comments, String lateReturnReason) {
-    System.out.println("🔄 Marking return for outpass ID: " + outpassId);
+    MDC.put("outpassId", String.valueOf(outpassId));
+    log.debug("Marking return for outpass {}", outpassId);
     
     Outpass outpass = outpassRepository.findById(outpassId)
             .orElseThrow(() -> new ResourceNotFoundException("Outpass", "id", outpassId));
@@ -294,7 +443,7 @@ public OutpassResponse markReturn(Long outpassId, Long securityId, String commen
         }
         
         outpass.setLateReturnReason(expiredReason.toString());
-        System.out.println("⚠️ Completed EXPIRED outpass ID: " + outpassId);
+        log.warn("Completed expired outpass {}", outpassId);
         
     } else {
         // Normal return processing
@@ -317,12 +466,16 @@ public OutpassResponse markReturn(Long outpassId, Long securityId, String commen
     outpass.setSecurityComments(finalComments.toString());
     
     // Log the action
-    System.out.println("✅ Return marked successfully - Outpass ID: " + outpassId + 
-                      ", Expired: " + isExpired +
-                      ", Late: " + isLateReturn + 
-                      ", Security ID: " + securityId);
-    
-    outpass = outpassRepository.save(outpass);
+    log.info("Return marked for outpass {} by security {} (expired={}, late={})",
+             outpassId, securityId, isExpired, isLateReturn);
+    
+    try {
+        // Flush now so a concurrent return (version mismatch) surfaces here rather than at commit
+        outpass = outpassRepository.saveAndFlush(outpass);
+    } catch (ObjectOptimisticLockingFailureException e) {
+        throw new IllegalStateException("Outpass " + outpassId + " was just updated at another gate, please refresh", e);
+    }
+    statusChanged(outpass, OutpassStatus.ACTIVE);
     return convertToResponse(outpass);
 }
     
@@ -330,29 +483,119 @@ public OutpassResponse markReturn(Long outpassId, Long securityId, String commen
      * Get active outpasses (students currently out)
      */
     public List<OutpassResponse> getActiveOutpasses() {
-        List<Outpass> outpasses = outpassRepository.findActiveOutpasses();
-        return outpasses.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return outpassRepository.findActiveResponses();
+    }
+    
+    /**
+     * Get one page of active outpasses, earliest departure first
+     */
+    public CursorPage<OutpassResponse> getActiveOutpassesPage(String cursor, Integer size) {
+        int pageSize = CursorPage.clampSize(size);
+        CursorPage.Key key = CursorPage.ascending(cursor);
+        List<OutpassResponse> rows = outpassRepository.findActiveOutpassesPage(
+                key.getTime(), key.getId(), PageRequest.of(0, pageSize + 1));
+        return CursorPage.of(rows, pageSize, OutpassResponse::getActualDepartureTime, OutpassResponse::getId);
+    }
+    
+    /**
+     * Get one page of outpasses a security officer marked departure/return for, latest departure first
+     */
+    public CursorPage<OutpassResponse> getSecurityOutpassesPage(Long securityId, String cursor, Integer size) {
+        int pageSize = CursorPage.clampSize(size);
+        CursorPage.Key key = CursorPage.descending(cursor);
+        List<OutpassResponse> rows = outpassRepository.findBySecurityIdPage(
+                securityId, key.getTime(), key.getId(), PageRequest.of(0, pageSize + 1));
+        return CursorPage.of(rows, pageSize, OutpassResponse::getActualDepartureTime, OutpassResponse::getId);
     }
     
     /**
      * Get all outpasses (for warden/admin)
      */
     public List<OutpassResponse> getAllOutpasses() {
-        List<Outpass> outpasses = outpassRepository.findAll();
-        return outpasses.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return outpassRepository.findAllResponses();
+    }
+    
+    /**
+     * Get security gate dashboard counters computed by the database
+     */
+    public Map<String, Long> getGateDashboardCounts() {
+        CampusClock.DayRange today = campusClock.todayRange();
+        List<Object[]> rows = outpassRepository.getGateDashboardCounts(today.getStart(), today.getEnd());
+        
+        long approved = 0;
+        long active = 0;
+        long completedToday = 0;
+        long lateReturns = 0;
+        for (Object[] row : rows) {
+            OutpassStatus status = (OutpassStatus) row[0];
+            if (status == OutpassStatus.APPROVED) {
+                approved = toLong(row[1]);
+            } else if (status == OutpassStatus.ACTIVE) {
+                active = toLong(row[1]);
+            } else if (status == OutpassStatus.COMPLETED) {
+                completedToday = toLong(row[3]);
+            }
+            lateReturns += toLong(row[2]);
+        }
+        
+        Map<String, Long> counts = new HashMap<>();
+        counts.put("approved", approved);
+        counts.put("active", active);
+        counts.put("completedToday", completedToday);
+        counts.put("lateReturns", lateReturns);
+        return counts;
+    }
+    
+    /**
+     * Today's gate activity on the campus calendar; each list is one indexed range query over today's rows
+     */
+    public SecurityController.TodayActivity getTodayActivity() {
+        CampusClock.DayRange today = campusClock.todayRange();
+        LocalDateTime dayStart = today.getStart();
+        LocalDateTime dayEnd = today.getEnd();
+        
+        SecurityController.TodayActivity todayActivity = new SecurityController.TodayActivity();
+        todayActivity.setDeparturesToday(outpassRepository.findDeparturesBetween(dayStart, dayEnd));
+        todayActivity.setReturnsToday(outpassRepository.findReturnsBetween(dayStart, dayEnd));
+        todayActivity.setExpectedReturns(outpassRepository.findActiveDueBetween(dayStart, dayEnd));
+        return todayActivity;
+    }
+    
+    /**
+     * Get the most recent gate departures/returns (at most {@code limit} rows)
+     */
+    public List<OutpassResponse> getRecentGateActivity(int limit) {
+        return outpassRepository.findRecentGateActivity(PageRequest.of(0, limit));
+    }
+    
+    /**
+     * Get students still out past their expected return time, most overdue first
+     */
+    public List<OutpassResponse> getOverdueOutpasses(int limit) {
+        return outpassRepository.findOverdueActiveOutpasses(LocalDateTime.now(), PageRequest.of(0, limit));
+    }
+    
+    // Every status transition goes through here: counters and live feeds both act after commit
+    private void statusChanged(Outpass outpass, OutpassStatus previous) {
+        statusChanged(outpass.getId(), outpass.getStudent().getId(), outpass.getHostelName(), previous, outpass.getStatus());
+    }
+    
+    private void statusChanged(Long outpassId, Long studentId, String hostelName,
+                               OutpassStatus previous, OutpassStatus status) {
+        statusCounters.recordTransition(hostelName, previous, status);
+        eventPublisher.publishEvent(new OutpassStatusEvent(outpassId, studentId, hostelName, previous, status));
+    }
+    
+    private static long toLong(Object value) {
+        return value == null ? 0L : ((Number) value).longValue();
     }
     
     /**
      * Get outpass by ID
      */
     public OutpassResponse getOutpassById(Long id) {
-        Outpass outpass = outpassRepository.findById(id)
+        return outpassRepository.findResponseById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Outpass", "id", id));
-        return convertToResponse(outpass);
     }
     // In your OutpassService.java - UPDATE THE convertToResponse METHOD
 /**
@@ -388,17 +631,6 @@ private OutpassResponse convertToResponse(Outpass outpass) {
         response.setReviewedByName(outpass.getReviewedBy().getFullName());
     }
     
-    // Log late return information for debugging
-    if (outpass.getIsLateReturn() != null && outpass.getIsLateReturn()) {
-        System.out.println("⚠️ Converted outpass ID " + outpass.getId() + 
-                          " - LATE RETURN: " + outpass.getIsLateReturn() +
-                          ", Reason: " + (outpass.getLateReturnReason() != null ? outpass.getLateReturnReason() : "No reason"));
-    } else {
-        System.out.println("✅ Converted outpass ID " + outpass.getId() + 
-                          " with hostel: " + response.getHostelName() +
-                          ", Late Return: " + response.getIsLateReturn());
-    }
-    
     return response;
 }
 }
\ No newline at end of file
@@ -0,0 +1,191 @@
+package com.mit.outpass.service;
+
+import com.mit.outpass.enums.OutpassStatus;
+import com.mit.outpass.repository.OutpassRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory outpass counts per (hostel, status), loaded from the database at startup and
+ * adjusted after each committed status transition so warden stats never hit the database.
+ * A scheduled reconciliation compares against a grouped COUNT and repairs any drift.
+ *
+ * The counters are only ever moved by deltas, never overwritten: a transition whose afterCommit
+ * runs while a load or reconcile is in progress is kept, not replaced by the older database count.
+ */
+@Component
+public class OutpassStatusCounters {
+
+    private static final Logger log = LoggerFactory.getLogger(OutpassStatusCounters.class);
+
+    private static final OutpassStatus[] STATUSES = OutpassStatus.values();
+
+    private final Map<String, LongAdder[]> countsByHostel = new ConcurrentHashMap<>();
+
+    // Differences (database - counter) seen by the previous reconcile pass; only reconcile() touches it
+    private Map<String, long[]> previousDrift = new HashMap<>();
+
+    @Autowired
+    private OutpassRepository outpassRepository;
+
+    /**
+     * Add the database counts at startup. Requests are already being served by then, so transitions
+     * recorded so far are kept rather than cleared; one that also made it into the loaded counts
+     * shows up as drift and is settled by reconcile().
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rehydrate() {
+        Map<String, long[]> actual = loadCounts();
+        actual.forEach((hostel, counts) -> {
+            LongAdder[] adders = adders(hostel);
+            for (int i = 0; i < counts.length; i++) {
+                adders[i].add(counts[i]);
+            }
+        });
+        log.info("Outpass counters loaded for {} hostels", actual.size());
+    }
+
+    /**
+     * Record a status change for one outpass. {@code from} is null for a new application.
+     * Inside a transaction the counters move only once it commits; a rollback leaves them untouched.
+     */
+    public void recordTransition(String hostelName, OutpassStatus from, OutpassStatus to) {
+        if (hostelName == null) {
+            return;
+        }
+        afterCommit(() -> {
+            if (from != null) {
+                adders(hostelName)[from.ordinal()].decrement();
+            }
+            if (to != null) {
+                adders(hostelName)[to.ordinal()].increment();
+            }
+        });
+    }
+
+    /**
+     * Record a student's outpasses being moved to another hostel.
+     * {@code statusCounts} holds rows of (status, count) for that student's outpasses.
+     */
+    public void recordHostelMove(String fromHostel, String toHostel, List<Object[]> statusCounts) {
+        if (fromHostel == null || toHostel == null) {
+            return;
+        }
+        afterCommit(() -> {
+            for (Object[] row : statusCounts) {
+                int index = ((OutpassStatus) row[0]).ordinal();
+                long count = ((Number) row[1]).longValue();
+                adders(fromHostel)[index].add(-count);
+                adders(toHostel)[index].add(count);
+            }
+        });
+    }
+
+    /**
+     * Current counts for one hostel, every status present (zero when none)
+     */
+    public Map<OutpassStatus, Long> snapshot(String hostelName) {
+        Map<OutpassStatus, Long> snapshot = new EnumMap<>(OutpassStatus.class);
+        LongAdder[] adders = hostelName != null ? countsByHostel.get(hostelName) : null;
+        for (OutpassStatus status : STATUSES) {
+            snapshot.put(status, adders != null ? adders[status.ordinal()].sum() : 0L);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Compare the counters with the database and correct any that drifted
+     * (transitions made outside the services, manual SQL, a failed afterCommit).
+     * A transition committing during the pass looks like drift for that pass only, so a counter is
+     * corrected only when the same difference is seen on two consecutive passes, and then by adding
+     * that difference rather than overwriting the counter.
+     */
+    @Scheduled(fixedDelayString = "${app.outpass.counters.reconcile-interval-ms:300000}",
+               initialDelayString = "${app.outpass.counters.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        Map<String, long[]> actual = loadCounts();
+        Map<String, long[]> drift = new HashMap<>();
+        int repaired = 0;
+
+        for (String hostel : countsByHostel.keySet()) {
+            actual.putIfAbsent(hostel, new long[STATUSES.length]);
+        }
+        for (Map.Entry<String, long[]> entry : actual.entrySet()) {
+            String hostel = entry.getKey();
+            LongAdder[] adders = adders(hostel);
+            long[] counts = entry.getValue();
+            long[] previous = previousDrift.get(hostel);
+            for (int i = 0; i < counts.length; i++) {
+                long current = adders[i].sum();
+                long difference = counts[i] - current;
+                if (difference == 0) {
+                    continue;
+                }
+                if (previous != null && previous[i] == difference) {
+                    log.warn("Outpass counter drift for {} {}: counter={}, database={}",
+                             hostel, STATUSES[i], current, counts[i]);
+                    adders[i].add(difference);
+                    repaired++;
+                } else {
+                    drift.computeIfAbsent(hostel, h -> new long[STATUSES.length])[i] = difference;
+                }
+            }
+        }
+        previousDrift = drift;
+
+        if (repaired > 0) {
+            log.warn("Repaired {} drifted outpass counters", repaired);
+        } else if (!drift.isEmpty()) {
+            log.debug("Outpass counters differ from the database for {} hostels; checking again next pass", drift.size());
+        } else {
+            log.debug("Outpass counters match the database");
+        }
+    }
+
+    private Map<String, long[]> loadCounts() {
+        Map<String, long[]> counts = new HashMap<>();
+        for (Object[] row : outpassRepository.countByHostelAndStatus()) {
+            String hostel = (String) row[0];
+            OutpassStatus status = (OutpassStatus) row[1];
+            counts.computeIfAbsent(hostel, h -> new long[STATUSES.length])[status.ordinal()] = ((Number) row[2]).longValue();
+        }
+        return counts;
+    }
+
+    private LongAdder[] adders(String hostelName) {
+        return countsByHostel.computeIfAbsent(hostelName, h -> {
+            LongAdder[] adders = new LongAdder[STATUSES.length];
+            for (int i = 0; i < adders.length; i++) {
+                adders[i] = new LongAdder();
+            }
+            return adders;
+        });
+    }
+
+    private static void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+}
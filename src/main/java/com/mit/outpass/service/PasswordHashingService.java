@@ -0,0 +1,123 @@
+package com.mit.outpass.service;
+
+import com.mit.outpass.exception.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs login password hashing on a small dedicated pool instead of the request thread, so a burst of
+ * logins (curfew) cannot take every CPU away from the other endpoints. When the queue is full callers
+ * get a ServiceBusyException (503) straight away rather than waiting behind hundreds of hashes.
+ *
+ * The calling request thread still waits for its hash, so every running or queued hash parks one Tomcat
+ * thread. The queue is therefore kept small: by default running plus queued hashes hold at most a quarter
+ * of server.tomcat.threads.max, and the rest of the connector stays free for other endpoints.
+ */
+@Service
+public class PasswordHashingService {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+
+    private final Timer queueWait;
+    private final Timer verifyTimer;
+    private final Timer encodeTimer;
+    private final Counter rejected;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder, MeterRegistry meterRegistry,
+                                  @Value("${app.security.hashing.threads:0}") int threads,
+                                  @Value("${app.security.hashing.queue-capacity:0}") int queueCapacity,
+                                  @Value("${server.tomcat.threads.max:200}") int connectorThreads) {
+        this.passwordEncoder = passwordEncoder;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        int parkingLimit = connectorThreads / 4;
+        int capacity = queueCapacity > 0 ? queueCapacity : Math.max(1, parkingLimit - poolSize);
+        if (poolSize + capacity > parkingLimit) {
+            log.warn("Password hashing pool ({} threads + {} queued) can park more than a quarter of the {} Tomcat threads",
+                     poolSize, capacity, connectorThreads);
+        }
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacity), new CustomizableThreadFactory("password-hash-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.queueWait = Timer.builder("auth.hashing.queue.wait")
+                .description("Time a hash waited for a worker")
+                .register(meterRegistry);
+        this.verifyTimer = Timer.builder("auth.hashing.duration").tag("operation", "verify").register(meterRegistry);
+        this.encodeTimer = Timer.builder("auth.hashing.duration").tag("operation", "encode").register(meterRegistry);
+        this.rejected = Counter.builder("auth.hashing.rejected")
+                .description("Hashes refused because the queue was full")
+                .register(meterRegistry);
+        Gauge.builder("auth.hashing.queue.depth", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("auth.hashing.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+
+        log.info("Password hashing pool: {} threads, queue capacity {}", poolSize, capacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(verifyTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    public String encode(CharSequence rawPassword) {
+        return run(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * True when the stored hash was made with a lower cost than the one configured now
+     */
+    public boolean needsRehash(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T run(Timer timer, Supplier<T> hash) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queueWait.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return timer.record(hash);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceBusyException("Too many logins in progress, please try again in a moment");
+        }
+
+        // Parks the request thread until the hash is done; the small queue bounds how many can wait here
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while checking password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
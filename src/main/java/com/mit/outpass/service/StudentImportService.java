@@ -0,0 +1,474 @@
+package com.mit.outpass.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mit.outpass.controller.AdminController.RegisterStudentRequest;
+import com.mit.outpass.dto.StudentImportResult;
+import com.mit.outpass.entity.Student;
+import com.mit.outpass.enums.UserRole;
+import com.mit.outpass.repository.StudentRepository;
+import com.mit.outpass.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Streams a CSV or JSON-lines file of students into the database in chunks.
+ * Each chunk is validated against the Student entity constraints, checked for duplicates with one
+ * IN query per unique column, has its passwords hashed on a bounded worker pool and is inserted with
+ * a multi-row users INSERT plus a JDBC batch into students. Bad rows are reported, not fatal; a file that
+ * cannot be read any further ends the import with the rows before it kept and the error attached.
+ */
+@Service
+public class StudentImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentImportService.class);
+
+    public static final String CSV = "text/csv";
+    public static final String JSON_LINES = "application/x-ndjson";
+
+    // 500 rows x 7 bind parameters keeps the users INSERT well under the PostgreSQL limit
+    private static final int CHUNK_SIZE = 500;
+
+    // CSV header names, the same as the JSON property names of a single registration
+    private static final List<String> COLUMNS = List.of(
+            "username", "password", "fullName", "email", "mobileNumber", "rollNumber", "course", "degree",
+            "yearOfStudy", "hostelName", "roomNumber", "address", "guardianName", "guardianMobile", "guardianRelation");
+
+    private static final String INSERT_STUDENT =
+            "INSERT INTO students (user_id, roll_number, course, degree, year_of_study, hostel_name, room_number, " +
+            "address, guardian_name, guardian_mobile, guardian_relation) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor hashingPool;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public StudentImportService(PlatformTransactionManager transactionManager,
+                                @Value("${app.import.hash-threads:0}") int hashThreads) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        int threads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        // BCrypt is CPU bound: cap the threads, and once the queue is full the importing thread hashes too
+        this.hashingPool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(CHUNK_SIZE), new CustomizableThreadFactory("student-import-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingPool.shutdown();
+    }
+
+    /**
+     * Import students from {@code body}, read as CSV (header row required) or one JSON object per line
+     */
+    public StudentImportResult importStudents(InputStream body, String format) throws IOException {
+        ImportRun run = new ImportRun();
+        Consumer<ImportRow> sink = row -> {
+            run.result.addReceived();
+            if (row.error != null) {
+                run.result.addError(row.line, null, row.error);
+                return;
+            }
+            run.chunk.add(row);
+            if (run.chunk.size() == CHUNK_SIZE) {
+                importChunk(run);
+            }
+        };
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            if (CSV.equals(format)) {
+                readCsv(reader, sink);
+            } else {
+                readJsonLines(reader, sink);
+            }
+        } catch (IllegalArgumentException e) {
+            // The rest of the file cannot be read (unknown column, unterminated quote); earlier chunks are
+            // already committed, so report what was imported together with where reading stopped
+            log.warn("Student import stopped after {} rows: {}", run.result.getReceived(), e.getMessage());
+            run.result.setFatalError(e.getMessage());
+        }
+        if (!run.chunk.isEmpty()) {
+            importChunk(run);
+        }
+
+        log.info("Student import finished: {} rows received, {} imported, {} rejected",
+                 run.result.getReceived(), run.result.getImported(), run.result.getFailed());
+        return run.result;
+    }
+
+    private void importChunk(ImportRun run) {
+        List<ImportRow> rows = new ArrayList<>(run.chunk);
+        run.chunk.clear();
+
+        // Entity constraints first, so malformed rows never reach the duplicate checks
+        List<Candidate> valid = new ArrayList<>();
+        for (ImportRow row : rows) {
+            Student student = toStudent(row.request);
+            Set<ConstraintViolation<Student>> violations = validator.validate(student);
+            if (violations.isEmpty()) {
+                valid.add(new Candidate(row.line, student));
+            } else {
+                run.result.addError(row.line, student.getRollNumber(), violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        Set<String> takenUsernames = new HashSet<>(userRepository.findExistingUsernames(
+                valid.stream().map(c -> c.student.getUsername()).toList()));
+        Set<String> takenEmails = new HashSet<>(userRepository.findExistingEmails(
+                valid.stream().map(c -> c.student.getEmail()).toList()));
+        Set<String> takenMobiles = new HashSet<>(userRepository.findExistingMobileNumbers(
+                valid.stream().map(c -> c.student.getMobileNumber()).filter(Objects::nonNull).toList()));
+        Set<String> takenRollNumbers = new HashSet<>(studentRepository.findExistingRollNumbers(
+                valid.stream().map(c -> c.student.getRollNumber()).toList()));
+
+        // Values accepted from this chunk only join the run once the chunk has committed, so a rolled-back
+        // chunk does not turn later rows with the same values into "appears earlier in the file" errors
+        UniqueValues chunkValues = new UniqueValues();
+        List<Candidate> accepted = new ArrayList<>();
+        for (Candidate candidate : valid) {
+            Student student = candidate.student;
+            String conflict = null;
+            if (takenUsernames.contains(student.getUsername())) {
+                conflict = "Username already exists";
+            } else if (takenEmails.contains(student.getEmail())) {
+                conflict = "Email already exists";
+            } else if (student.getMobileNumber() != null && takenMobiles.contains(student.getMobileNumber())) {
+                conflict = "Mobile number already exists";
+            } else if (takenRollNumbers.contains(student.getRollNumber())) {
+                conflict = "Roll number already exists";
+            } else {
+                conflict = run.imported.conflict(student);
+                if (conflict == null) {
+                    conflict = chunkValues.conflict(student);
+                }
+            }
+
+            if (conflict != null) {
+                run.result.addError(candidate.line, student.getRollNumber(), conflict);
+                continue;
+            }
+            chunkValues.add(student);
+            accepted.add(candidate);
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        CompletableFuture.allOf(accepted.stream()
+                .map(c -> CompletableFuture.runAsync(
+                        () -> c.student.setPassword(passwordEncoder.encode(c.student.getPassword())), hashingPool))
+                .toArray(CompletableFuture[]::new))
+                .join();
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(accepted));
+            run.result.addImported(accepted.size());
+            run.imported.addAll(chunkValues);
+        } catch (DataAccessException e) {
+            // Another registration took one of these values after the duplicate check; the chunk is rolled back
+            log.warn("Student import chunk of {} rows rolled back: {}", accepted.size(), e.getMostSpecificCause().getMessage());
+            accepted.forEach(c -> run.result.addError(c.line, c.student.getRollNumber(),
+                    "Not imported: conflicts with a registration made during the import"));
+        }
+    }
+
+    private void insert(List<Candidate> accepted) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        StringBuilder sql = new StringBuilder("INSERT INTO users (user_type, username, password, full_name, email, " +
+                "mobile_number, role, is_active, created_at, updated_at) VALUES ");
+        List<Object> args = new ArrayList<>(accepted.size() * 7);
+        for (int i = 0; i < accepted.size(); i++) {
+            Student student = accepted.get(i).student;
+            sql.append(i > 0 ? ", " : "").append("('STUDENT', ?, ?, ?, ?, ?, 'STUDENT', TRUE, ?, ?)");
+            args.add(student.getUsername());
+            args.add(student.getPassword());
+            args.add(student.getFullName());
+            args.add(student.getEmail());
+            args.add(student.getMobileNumber());
+            args.add(now);
+            args.add(now);
+        }
+        sql.append(" RETURNING id, username");
+
+        Map<String, Long> userIds = new HashMap<>();
+        jdbcTemplate.query(sql.toString(), (RowCallbackHandler) rs -> userIds.put(rs.getString(2), rs.getLong(1)),
+                args.toArray());
+
+        List<Object[]> students = new ArrayList<>(accepted.size());
+        for (Candidate candidate : accepted) {
+            Student student = candidate.student;
+            students.add(new Object[] {
+                    userIds.get(student.getUsername()), student.getRollNumber(), student.getCourse(),
+                    student.getDegree(), student.getYearOfStudy(), student.getHostelName(), student.getRoomNumber(),
+                    student.getAddress(), student.getGuardianName(), student.getGuardianMobile(),
+                    student.getGuardianRelation()
+            });
+        }
+        jdbcTemplate.batchUpdate(INSERT_STUDENT, students);
+    }
+
+    // Same field handling as AuthService.createStudent; the password stays raw until hashed
+    private Student toStudent(RegisterStudentRequest request) {
+        Student student = new Student();
+        student.setUsername(request.getUsername());
+        student.setPassword(request.getPassword());
+        student.setFullName(request.getFullName());
+        student.setEmail(request.getEmail());
+        student.setMobileNumber(blankToNull(request.getMobileNumber()));
+        student.setRole(UserRole.STUDENT);
+        student.setIsActive(true);
+        student.setRollNumber(request.getRollNumber());
+        student.setCourse(request.getCourse());
+        student.setDegree(request.getDegree());
+        student.setYearOfStudy(request.getYearOfStudy());
+        student.setHostelName(request.getHostelName());
+        student.setRoomNumber(request.getRoomNumber());
+        student.setAddress(blankToNull(request.getAddress()));
+        student.setGuardianName(blankToNull(request.getGuardianName()));
+        student.setGuardianMobile(blankToNull(request.getGuardianMobile()));
+        student.setGuardianRelation(blankToNull(request.getGuardianRelation()));
+        return student;
+    }
+
+    private void readJsonLines(BufferedReader reader, Consumer<ImportRow> sink) throws IOException {
+        String text;
+        int line = 0;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            try {
+                sink.accept(new ImportRow(line, objectMapper.readValue(text, RegisterStudentRequest.class), null));
+            } catch (JsonProcessingException e) {
+                sink.accept(new ImportRow(line, null, "Invalid JSON: " + e.getOriginalMessage()));
+            }
+        }
+    }
+
+    private void readCsv(BufferedReader reader, Consumer<ImportRow> sink) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            return;
+        }
+        String[] columns = new String[header.size()];
+        for (int i = 0; i < columns.length; i++) {
+            String name = header.get(i).replace("\uFEFF", "").trim();
+            if (!COLUMNS.contains(name)) {
+                throw new IllegalArgumentException("Unknown CSV column '" + name + "', expected some of " + COLUMNS);
+            }
+            columns[i] = name;
+        }
+
+        List<String> fields;
+        while ((fields = csv.next()) != null) {
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue;
+            }
+            if (fields.size() != columns.length) {
+                sink.accept(new ImportRow(csv.recordLine, null,
+                        "Expected " + columns.length + " columns but found " + fields.size()));
+                continue;
+            }
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; i < columns.length; i++) {
+                String value = fields.get(i).trim();
+                if (!value.isEmpty()) {
+                    values.put(columns[i], value);
+                }
+            }
+            try {
+                sink.accept(new ImportRow(csv.recordLine, objectMapper.convertValue(values, RegisterStudentRequest.class), null));
+            } catch (IllegalArgumentException e) {
+                sink.accept(new ImportRow(csv.recordLine, null, "Invalid value: " + e.getMessage()));
+            }
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.trim().isEmpty() ? null : value;
+    }
+
+    /**
+     * Minimal RFC 4180 reader: comma separated, double-quoted fields may hold commas, quotes ("") and newlines
+     */
+    private static final class CsvReader {
+        private final BufferedReader reader;
+        private int line;
+        private int recordLine;
+
+        private CsvReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        private List<String> next() throws IOException {
+            String text = reader.readLine();
+            if (text == null) {
+                return null;
+            }
+            recordLine = ++line;
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int i = 0;
+            while (true) {
+                if (i == text.length()) {
+                    if (!quoted) {
+                        fields.add(field.toString());
+                        return fields;
+                    }
+                    // Quoted field continues on the next line
+                    text = reader.readLine();
+                    if (text == null) {
+                        throw new IllegalArgumentException("Unterminated quoted field starting on line " + recordLine);
+                    }
+                    line++;
+                    field.append('\n');
+                    i = 0;
+                    continue;
+                }
+                char c = text.charAt(i++);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i < text.length() && text.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+        }
+    }
+
+    private static final class ImportRow {
+        private final int line;
+        private final RegisterStudentRequest request;
+        private final String error;
+
+        private ImportRow(int line, RegisterStudentRequest request, String error) {
+            this.line = line;
+            this.request = request;
+            this.error = error;
+        }
+    }
+
+    private static final class Candidate {
+        private final int line;
+        private final Student student;
+
+        private Candidate(int line, Student student) {
+            this.line = line;
+            this.student = student;
+        }
+    }
+
+    // Unique columns of students taken from the file
+    private static final class UniqueValues {
+        private final Set<String> usernames = new HashSet<>();
+        private final Set<String> emails = new HashSet<>();
+        private final Set<String> mobileNumbers = new HashSet<>();
+        private final Set<String> rollNumbers = new HashSet<>();
+
+        private String conflict(Student student) {
+            if (usernames.contains(student.getUsername())) {
+                return "Username appears earlier in the file";
+            } else if (emails.contains(student.getEmail())) {
+                return "Email appears earlier in the file";
+            } else if (student.getMobileNumber() != null && mobileNumbers.contains(student.getMobileNumber())) {
+                return "Mobile number appears earlier in the file";
+            } else if (rollNumbers.contains(student.getRollNumber())) {
+                return "Roll number appears earlier in the file";
+            }
+            return null;
+        }
+
+        private void add(Student student) {
+            usernames.add(student.getUsername());
+            emails.add(student.getEmail());
+            if (student.getMobileNumber() != null) {
+                mobileNumbers.add(student.getMobileNumber());
+            }
+            rollNumbers.add(student.getRollNumber());
+        }
+
+        private void addAll(UniqueValues other) {
+            usernames.addAll(other.usernames);
+            emails.addAll(other.emails);
+            mobileNumbers.addAll(other.mobileNumbers);
+            rollNumbers.addAll(other.rollNumbers);
+        }
+    }
+
+    // State for one import: the pending chunk and the unique values of the chunks committed so far
+    private static final class ImportRun {
+        private final StudentImportResult result = new StudentImportResult();
+        private final List<ImportRow> chunk = new ArrayList<>(CHUNK_SIZE);
+        private final UniqueValues imported = new UniqueValues();
+    }
+}
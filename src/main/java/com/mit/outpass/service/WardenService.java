@@ -1,5 +1,8 @@
 package com.mit.outpass.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mit.outpass.dto.CursorPage;
 import com.mit.outpass.dto.OutpassResponse;
 import com.mit.outpass.entity.Outpass;
 import com.mit.outpass.entity.Student;
@@ -9,18 +12,35 @@ import com.mit.outpass.exception.ResourceNotFoundException;
 import com.mit.outpass.repository.OutpassRepository;
 import com.mit.outpass.repository.StudentRepository;
 import com.mit.outpass.repository.WardenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 @Service
 public class WardenService {
     
+    private static final Logger log = LoggerFactory.getLogger(WardenService.class);
+    
+    private static final int RECENT_OUTPASSES_LIMIT = 10;
+    
+    // Hostel assignments change a couple of times a year; admin edits evict explicitly
+    private final Cache<Long, String> hostelByWardenId = Caffeine.newBuilder()
+            .maximumSize(1_000)
+            .expireAfterWrite(Duration.ofMinutes(30))
+            .build();
+    
     @Autowired
     private WardenRepository wardenRepository;
     
@@ -33,6 +53,9 @@ public class WardenService {
     @Autowired
     private OutpassService outpassService;
     
+    @Autowired
+    private OutpassStatusCounters statusCounters;
+    
     public Warden getWardenById(Long id) {
         return wardenRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Warden", "id", id));
@@ -61,44 +84,42 @@ public class WardenService {
     }
     
     public Warden updateWarden(Warden warden) {
-        return wardenRepository.save(warden);
+        Warden saved = wardenRepository.save(warden);
+        evictWardenHostel(saved.getId());
+        return saved;
     }
     
     // Hostel-specific outpass methods
     public List<OutpassResponse> getPendingOutpassesByHostel(String hostelName) {
-        System.out.println("🏠 Fetching pending outpasses for hostel: " + hostelName);
-        List<Outpass> outpasses = outpassRepository.findPendingOutpassesByHostel(hostelName);
-        return outpasses.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        log.debug("Fetching pending outpasses for hostel {}", hostelName);
+        List<OutpassResponse> outpasses = outpassRepository.findPendingResponsesByHostel(hostelName);
+        outpasses.forEach(this::applyReasonFallback);
+        return outpasses;
     }
     
     public List<OutpassResponse> getApprovedOutpassesByHostel(String hostelName) {
-        System.out.println("🏠 Fetching approved outpasses for hostel: " + hostelName);
-        List<Outpass> outpasses = outpassRepository.findApprovedOutpassesByHostel(hostelName);
-        return outpasses.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        log.debug("Fetching approved outpasses for hostel {}", hostelName);
+        List<OutpassResponse> outpasses = outpassRepository.findApprovedResponsesByHostel(hostelName);
+        outpasses.forEach(this::applyReasonFallback);
+        return outpasses;
     }
     
     public List<OutpassResponse> getActiveOutpassesByHostel(String hostelName) {
-        System.out.println("🏠 Fetching active outpasses for hostel: " + hostelName);
-        List<Outpass> outpasses = outpassRepository.findActiveOutpassesByHostel(hostelName);
-        return outpasses.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        log.debug("Fetching active outpasses for hostel {}", hostelName);
+        List<OutpassResponse> outpasses = outpassRepository.findActiveResponsesByHostel(hostelName);
+        outpasses.forEach(this::applyReasonFallback);
+        return outpasses;
     }
     
     public List<OutpassResponse> getAllOutpassesByHostel(String hostelName) {
-        System.out.println("🏠 Fetching all outpasses for hostel: " + hostelName);
-        List<Outpass> outpasses = outpassRepository.findAllOutpassesByHostel(hostelName);
-        return outpasses.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        log.debug("Fetching all outpasses for hostel {}", hostelName);
+        List<OutpassResponse> outpasses = outpassRepository.findAllResponsesByHostel(hostelName);
+        outpasses.forEach(this::applyReasonFallback);
+        return outpasses;
     }
     
     public List<OutpassResponse> getOutpassesByHostelAndStatus(String hostelName, String status) {
-        System.out.println("🏠 Fetching outpasses for hostel: " + hostelName + " with status: " + status);
+        log.debug("Fetching outpasses for hostel {} with status {}", hostelName, status);
         
         switch (status.toUpperCase()) {
             case "PENDING":
@@ -113,42 +134,101 @@ public class WardenService {
         }
     }
     
-    // Statistics methods with hostel filtering
+    // Keyset-paginated hostel listings (cursor from the previous page, null for the first page)
+    public CursorPage<OutpassResponse> getOutpassesByHostelAndStatusPage(String hostelName, String status,
+                                                                         String cursor, Integer size) {
+        int pageSize = CursorPage.clampSize(size);
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        String normalized = status == null ? "ALL" : status.toUpperCase();
+        
+        switch (normalized) {
+            case "PENDING": {
+                CursorPage.Key key = CursorPage.ascending(cursor);
+                return toPage(outpassRepository.findPendingOutpassesByHostelPage(hostelName, key.getTime(), key.getId(), limit),
+                              pageSize, OutpassResponse::getCreatedAt);
+            }
+            case "APPROVED": {
+                CursorPage.Key key = CursorPage.ascending(cursor);
+                return toPage(outpassRepository.findApprovedOutpassesByHostelPage(hostelName, key.getTime(), key.getId(), limit),
+                              pageSize, OutpassResponse::getLeaveStartDate);
+            }
+            case "ACTIVE": {
+                CursorPage.Key key = CursorPage.ascending(cursor);
+                return toPage(outpassRepository.findActiveOutpassesByHostelPage(hostelName, key.getTime(), key.getId(), limit),
+                              pageSize, OutpassResponse::getActualDepartureTime);
+            }
+            case "ALL":
+            default: {
+                CursorPage.Key key = CursorPage.descending(cursor);
+                return toPage(outpassRepository.findAllOutpassesByHostelPage(hostelName, key.getTime(), key.getId(), limit),
+                              pageSize, OutpassResponse::getCreatedAt);
+            }
+        }
+    }
+    
+    private CursorPage<OutpassResponse> toPage(List<OutpassResponse> rows, int pageSize,
+                                               Function<OutpassResponse, LocalDateTime> sortKey) {
+        rows.forEach(this::applyReasonFallback);
+        return CursorPage.of(rows, pageSize, sortKey, OutpassResponse::getId);
+    }
+    
+    private static long toLong(Object value) {
+        return value == null ? 0L : ((Number) value).longValue();
+    }
+    
+    // Listings should never show a blank reason to the warden
+    private void applyReasonFallback(OutpassResponse response) {
+        String reason = response.getReason();
+        if (reason == null || reason.trim().isEmpty()) {
+            response.setReason("No reason provided");
+        }
+    }
+    
+    // Statistics methods with hostel filtering (served from the in-memory counters)
     public Map<String, Long> getWardenStats(String hostelName) {
-        System.out.println("📊 Fetching statistics for hostel: " + hostelName);
+        log.debug("Fetching statistics for hostel {}", hostelName);
         
+        Map<OutpassStatus, Long> counts = statusCounters.snapshot(hostelName);
         Map<String, Long> stats = new HashMap<>();
-        stats.put("pending", outpassRepository.countByStatusAndHostel(OutpassStatus.PENDING, hostelName));
-        stats.put("approved", outpassRepository.countByStatusAndHostel(OutpassStatus.APPROVED, hostelName));
-        stats.put("active", outpassRepository.countByStatusAndHostel(OutpassStatus.ACTIVE, hostelName));
-        stats.put("rejected", outpassRepository.countByStatusAndHostel(OutpassStatus.REJECTED, hostelName));
-        stats.put("completed", outpassRepository.countByStatusAndHostel(OutpassStatus.COMPLETED, hostelName));
-        stats.put("cancelled", outpassRepository.countByStatusAndHostel(OutpassStatus.CANCELLED, hostelName));
-        stats.put("total", outpassRepository.countAllOutpassesByHostel(hostelName));
+        stats.put("pending", counts.get(OutpassStatus.PENDING));
+        stats.put("approved", counts.get(OutpassStatus.APPROVED));
+        stats.put("active", counts.get(OutpassStatus.ACTIVE));
+        stats.put("rejected", counts.get(OutpassStatus.REJECTED));
+        stats.put("completed", counts.get(OutpassStatus.COMPLETED));
+        stats.put("cancelled", counts.get(OutpassStatus.CANCELLED));
+        stats.put("total", counts.values().stream().mapToLong(Long::longValue).sum());
         
-        System.out.println("📊 Stats for " + hostelName + ": " + stats);
+        log.debug("Stats for {}: {}", hostelName, stats);
         return stats;
     }
     
     public Map<String, Object> getDetailedStatistics(String hostelName) {
-        System.out.println("📈 Fetching detailed statistics for hostel: " + hostelName);
+        log.debug("Fetching detailed statistics for hostel {}", hostelName);
         
-        Map<String, Object> stats = new HashMap<>();
-        List<OutpassResponse> allOutpasses = getAllOutpassesByHostel(hostelName);
+        // One grouped pass over the hostel's outpasses for every count
+        Map<OutpassStatus, Long> byStatus = new EnumMap<>(OutpassStatus.class);
+        long total = 0;
+        long lateReturns = 0;
+        for (Object[] row : outpassRepository.getHostelStatusBreakdown(hostelName)) {
+            long count = toLong(row[1]);
+            byStatus.put((OutpassStatus) row[0], count);
+            total += count;
+            lateReturns += toLong(row[2]);
+        }
         
-        // Basic counts
-        stats.put("totalApplications", allOutpasses.size());
-        stats.put("pendingApplications", allOutpasses.stream().filter(o -> o.getStatus() == OutpassStatus.PENDING).count());
-        stats.put("approvedApplications", allOutpasses.stream().filter(o -> o.getStatus() == OutpassStatus.APPROVED).count());
-        stats.put("rejectedApplications", allOutpasses.stream().filter(o -> o.getStatus() == OutpassStatus.REJECTED).count());
-        stats.put("activeOutpasses", allOutpasses.stream().filter(o -> o.getStatus() == OutpassStatus.ACTIVE).count());
-        stats.put("completedOutpasses", allOutpasses.stream().filter(o -> o.getStatus() == OutpassStatus.COMPLETED).count());
-        stats.put("lateReturns", allOutpasses.stream().filter(o -> Boolean.TRUE.equals(o.getIsLateReturn())).count());
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalApplications", total);
+        stats.put("pendingApplications", byStatus.getOrDefault(OutpassStatus.PENDING, 0L));
+        stats.put("approvedApplications", byStatus.getOrDefault(OutpassStatus.APPROVED, 0L));
+        stats.put("rejectedApplications", byStatus.getOrDefault(OutpassStatus.REJECTED, 0L));
+        stats.put("activeOutpasses", byStatus.getOrDefault(OutpassStatus.ACTIVE, 0L));
+        stats.put("completedOutpasses", byStatus.getOrDefault(OutpassStatus.COMPLETED, 0L));
+        stats.put("lateReturns", lateReturns);
         
         // Calculate rates
-        if (allOutpasses.size() > 0) {
-            double approvalRate = ((double) allOutpasses.stream().filter(o -> o.getStatus() == OutpassStatus.APPROVED).count() / allOutpasses.size()) * 100;
-            double rejectionRate = ((double) allOutpasses.stream().filter(o -> o.getStatus() == OutpassStatus.REJECTED).count() / allOutpasses.size()) * 100;
+        if (total > 0) {
+            double approvalRate = ((double) byStatus.getOrDefault(OutpassStatus.APPROVED, 0L) / total) * 100;
+            double rejectionRate = ((double) byStatus.getOrDefault(OutpassStatus.REJECTED, 0L) / total) * 100;
             stats.put("approvalRate", Math.round(approvalRate * 100.0) / 100.0);
             stats.put("rejectionRate", Math.round(rejectionRate * 100.0) / 100.0);
         } else {
@@ -156,17 +236,21 @@ public class WardenService {
             stats.put("rejectionRate", 0.0);
         }
         
-        // Recent outpasses (last 10)
-        List<OutpassResponse> recentOutpasses = allOutpasses.stream()
-                .limit(10)
-                .collect(Collectors.toList());
+        // Recent outpasses (last 10), read as a bounded newest-first page
+        CursorPage.Key newest = CursorPage.descending(null);
+        List<OutpassResponse> recentOutpasses = outpassRepository.findAllOutpassesByHostelPage(
+                hostelName, newest.getTime(), newest.getId(), PageRequest.of(0, RECENT_OUTPASSES_LIMIT));
+        recentOutpasses.forEach(this::applyReasonFallback);
         stats.put("recentOutpasses", recentOutpasses);
         
-        // Pending for review
-        List<OutpassResponse> pendingReview = getPendingOutpassesByHostel(hostelName);
-        stats.put("pendingReview", pendingReview);
+        // Pending for review: first page of the queue, the rest through the paginated listing
+        CursorPage<OutpassResponse> pendingReview = getOutpassesByHostelAndStatusPage(hostelName, "PENDING", null, null);
+        stats.put("pendingReview", pendingReview.getItems());
+        if (pendingReview.getNextCursor() != null) {
+            stats.put("pendingReviewNextCursor", pendingReview.getNextCursor());
+        }
         
-        System.out.println("📈 Detailed stats for " + hostelName + ": " + stats);
+        log.debug("Detailed stats computed for {}", hostelName);
         return stats;
     }
     
@@ -178,75 +262,45 @@ public class WardenService {
                     .orElseThrow(() -> new ResourceNotFoundException("Outpass", "id", outpassId));
             
             String wardenHostel = warden.getHostelAssigned();
-            String studentHostel = outpass.getStudent().getHostelName();
+            String studentHostel = outpass.getHostelName();
             
             boolean canReview = wardenHostel != null && 
                               wardenHostel.equals(studentHostel) && 
                               outpass.getStatus() == OutpassStatus.PENDING;
             
-            System.out.println("🔐 Warden " + wardenId + " (" + wardenHostel + ") " +
-                             "can review outpass " + outpassId + " (" + studentHostel + "): " + canReview);
+            log.debug("Warden {} ({}) can review outpass {} ({}): {}",
+                      wardenId, wardenHostel, outpassId, studentHostel, canReview);
             
             return canReview;
         } catch (Exception e) {
-            System.out.println("❌ Error checking warden permissions: " + e.getMessage());
+            log.warn("Error checking warden permissions: {}", e.getMessage());
             return false;
         }
     }
     
     public String getWardenHostel(Long wardenId) {
-        Warden warden = getWardenById(wardenId);
-        return warden.getHostelAssigned();
+        // A null hostel (unassigned warden) or a missing warden is never cached
+        return hostelByWardenId.get(wardenId, id -> getWardenById(id).getHostelAssigned());
+    }
+    
+    /**
+     * Drop the cached hostel for a warden. Called when a warden's assignment changes or the warden is deleted;
+     * inside a transaction the entry is evicted again once it completes so a concurrent reader cannot re-cache the old value.
+     */
+    public void evictWardenHostel(Long wardenId) {
+        hostelByWardenId.invalidate(wardenId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    hostelByWardenId.invalidate(wardenId);
+                }
+            });
+        }
     }
     
     public String getWardenHostelByUsername(String username) {
         Warden warden = getWardenByUsername(username);
         return warden.getHostelAssigned();
     }
-    // In your WardenService.java - Update the convertToResponse method
-// In your WardenService.java - COMPLETE FIXED VERSION
-private OutpassResponse convertToResponse(Outpass outpass) {
-    OutpassResponse response = new OutpassResponse();
-    response.setId(outpass.getId());
-    response.setStudentName(outpass.getStudent().getFullName());
-    response.setStudentRollNumber(outpass.getStudent().getRollNumber());
-    
-    // CRITICAL: Ensure hostel name is set
-    response.setHostelName(outpass.getStudent().getHostelName());
-    
-    // CRITICAL: Ensure reason is properly set with fallback
-    String reason = outpass.getReason();
-    if (reason == null || reason.trim().isEmpty()) {
-        reason = "No reason provided";
-        System.out.println("⚠️ Outpass ID " + outpass.getId() + " has empty reason, using fallback");
-    }
-    response.setReason(reason);
-    
-    response.setLeaveStartDate(outpass.getLeaveStartDate());
-    response.setExpectedReturnDate(outpass.getExpectedReturnDate());
-    response.setDestination(outpass.getDestination());
-    response.setStatus(outpass.getStatus());
-    response.setWardenComments(outpass.getWardenComments());
-    response.setSecurityComments(outpass.getSecurityComments());
-    response.setCreatedAt(outpass.getCreatedAt());
-    response.setActualDepartureTime(outpass.getActualDepartureTime());
-    response.setActualReturnTime(outpass.getActualReturnTime());
-    response.setIsLateReturn(outpass.getIsLateReturn());
-    response.setEmergencyContactName(outpass.getEmergencyContactName());
-    response.setEmergencyContactNumber(outpass.getEmergencyContactNumber());
-    response.setEmergencyContactRelation(outpass.getEmergencyContactRelation());
-    response.setLateReturnReason(outpass.getLateReturnReason());
-    
-    // Set reviewed by name if available
-    if (outpass.getReviewedBy() != null) {
-        response.setReviewedByName(outpass.getReviewedBy().getFullName());
-    }
-    
-    // Debug logging
-    System.out.println("✅ Converted outpass ID " + outpass.getId() + 
-                      " - Reason: " + response.getReason() +
-                      ", Hostel: " + response.getHostelName());
-    
-    return response;
 }
-}
\ No newline at end of file
@@ -0,0 +1,33 @@
+-- Trigram GIN indexes for UserRepository.searchUsers; kept apart from V9 because CONCURRENTLY cannot run in a transaction.
+-- They also serve the existing LOWER(x) LIKE '%...%' finders once the search term has three or more characters.
+-- Each index is dropped first: a failed CONCURRENTLY build leaves an INVALID index that IF NOT EXISTS would skip on re-run.
+
+-- Names: substring (LIKE) and typo-tolerant (%, <%) matching
+DROP INDEX CONCURRENTLY IF EXISTS idx_users_full_name_trgm;
+CREATE INDEX CONCURRENTLY idx_users_full_name_trgm
+    ON users USING gin (lower(full_name) gin_trgm_ops);
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_users_username_trgm;
+CREATE INDEX CONCURRENTLY idx_users_username_trgm
+    ON users USING gin (lower(username) gin_trgm_ops);
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_users_email_trgm;
+CREATE INDEX CONCURRENTLY idx_users_email_trgm
+    ON users USING gin (lower(email) gin_trgm_ops);
+
+-- Institutional IDs: partial matches such as the last digits of a roll number
+DROP INDEX CONCURRENTLY IF EXISTS idx_students_roll_number_trgm;
+CREATE INDEX CONCURRENTLY idx_students_roll_number_trgm
+    ON students USING gin (lower(roll_number) gin_trgm_ops);
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_wardens_employee_id_trgm;
+CREATE INDEX CONCURRENTLY idx_wardens_employee_id_trgm
+    ON wardens USING gin (lower(employee_id) gin_trgm_ops);
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_security_personnel_security_id_trgm;
+CREATE INDEX CONCURRENTLY idx_security_personnel_security_id_trgm
+    ON security_personnel USING gin (lower(security_id) gin_trgm_ops);
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_admins_admin_id_trgm;
+CREATE INDEX CONCURRENTLY idx_admins_admin_id_trgm
+    ON admins USING gin (lower(admin_id) gin_trgm_ops);
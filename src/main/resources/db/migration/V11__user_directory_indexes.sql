@@ -0,0 +1,16 @@
+-- Indexes for the paginated admin directory (StudentRepository.findDirectory and friends).
+-- Built CONCURRENTLY so existing deployments keep accepting writes; Flyway runs this script outside a transaction.
+-- Each index is dropped first: a failed CONCURRENTLY build leaves an INVALID index that IF NOT EXISTS would skip on re-run.
+
+-- Default order: ORDER BY full_name, id LIMIT n walks this index instead of sorting every user
+DROP INDEX CONCURRENTLY IF EXISTS idx_users_full_name_id;
+CREATE INDEX CONCURRENTLY idx_users_full_name_id
+    ON users (full_name, id);
+
+-- Student filters: hostel, then course, then year of study
+DROP INDEX CONCURRENTLY IF EXISTS idx_students_hostel_course_year;
+CREATE INDEX CONCURRENTLY idx_students_hostel_course_year
+    ON students (hostel_name, course, year_of_study);
+
+-- Its hostel_name prefix serves the hostel-scoped warden joins, so the V2 single-column index is redundant
+DROP INDEX CONCURRENTLY IF EXISTS idx_students_hostel_name;
@@ -0,0 +1,86 @@
+-- Baseline schema as previously generated by Hibernate from the entities.
+-- Existing databases are baselined at version 1 (see FlywayConfig), so this script only runs on empty databases.
+
+CREATE TABLE users (
+    user_type     VARCHAR(31)  NOT NULL,
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username      VARCHAR(255) NOT NULL UNIQUE,
+    password      VARCHAR(255) NOT NULL,
+    full_name     VARCHAR(255) NOT NULL,
+    email         VARCHAR(255) NOT NULL UNIQUE,
+    mobile_number VARCHAR(255) UNIQUE,
+    role          VARCHAR(255) NOT NULL CHECK (role IN ('STUDENT', 'WARDEN', 'SECURITY', 'ADMIN')),
+    is_active     BOOLEAN,
+    created_at    TIMESTAMP(6) NOT NULL,
+    updated_at    TIMESTAMP(6),
+    last_login    TIMESTAMP(6)
+);
+
+CREATE TABLE students (
+    user_id           BIGINT       NOT NULL PRIMARY KEY REFERENCES users (id),
+    roll_number       VARCHAR(255) NOT NULL UNIQUE,
+    course            VARCHAR(255) NOT NULL,
+    degree            VARCHAR(255) NOT NULL,
+    year_of_study     INTEGER,
+    hostel_name       VARCHAR(255) NOT NULL,
+    room_number       VARCHAR(255) NOT NULL,
+    address           TEXT,
+    guardian_name     VARCHAR(255),
+    guardian_mobile   VARCHAR(255),
+    guardian_relation VARCHAR(255)
+);
+
+CREATE TABLE wardens (
+    user_id             BIGINT       NOT NULL PRIMARY KEY REFERENCES users (id),
+    employee_id         VARCHAR(255) NOT NULL UNIQUE,
+    department          VARCHAR(255) NOT NULL,
+    designation         VARCHAR(255) NOT NULL,
+    hostel_assigned     VARCHAR(255),
+    years_of_experience INTEGER,
+    office_location     VARCHAR(255),
+    office_hours        VARCHAR(255)
+);
+
+CREATE TABLE security_personnel (
+    user_id                  BIGINT       NOT NULL PRIMARY KEY REFERENCES users (id),
+    security_id              VARCHAR(255) NOT NULL UNIQUE,
+    shift                    VARCHAR(255) NOT NULL,
+    gate_assigned            VARCHAR(255),
+    supervisor_name          VARCHAR(255),
+    supervisor_contact       VARCHAR(255),
+    years_of_service         INTEGER,
+    security_clearance_level VARCHAR(255)
+);
+
+CREATE TABLE admins (
+    user_id          BIGINT       NOT NULL PRIMARY KEY REFERENCES users (id),
+    admin_id         VARCHAR(255) NOT NULL UNIQUE,
+    department       VARCHAR(255),
+    designation      VARCHAR(255),
+    permission_level VARCHAR(255)
+);
+
+CREATE TABLE outpasses (
+    id                         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    student_id                 BIGINT       NOT NULL REFERENCES students (user_id),
+    leave_start_date           TIMESTAMP(6) NOT NULL,
+    expected_return_date       TIMESTAMP(6) NOT NULL,
+    reason                     VARCHAR(500) NOT NULL,
+    status                     VARCHAR(255) NOT NULL
+        CHECK (status IN ('PENDING', 'APPROVED', 'REJECTED', 'ACTIVE', 'COMPLETED', 'EXPIRED', 'CANCELLED')),
+    emergency_contact_name     VARCHAR(255),
+    emergency_contact_number   VARCHAR(255),
+    emergency_contact_relation VARCHAR(255),
+    reviewed_by                BIGINT REFERENCES wardens (user_id),
+    warden_comments            VARCHAR(500),
+    security_comments          VARCHAR(500),
+    departure_marked_by        BIGINT REFERENCES security_personnel (user_id),
+    return_marked_by           BIGINT REFERENCES security_personnel (user_id),
+    actual_departure_time      TIMESTAMP(6),
+    actual_return_time         TIMESTAMP(6),
+    is_late_return             BOOLEAN,
+    late_return_reason         VARCHAR(500),
+    created_at                 TIMESTAMP(6) NOT NULL,
+    destination                VARCHAR(255),
+    reviewed_at                TIMESTAMP(6)
+);
@@ -0,0 +1,62 @@
+-- Indexes matched to the OutpassRepository queries.
+-- Built CONCURRENTLY so existing deployments keep accepting writes; Flyway runs this script outside a transaction.
+-- A failed CONCURRENTLY build leaves an INVALID index, so every index is dropped before it is (re)built.
+
+-- Pending queue and keyset pages: status = ? ORDER BY created_at, id
+DROP INDEX CONCURRENTLY IF EXISTS idx_outpasses_status_created_at;
+CREATE INDEX CONCURRENTLY idx_outpasses_status_created_at
+    ON outpasses (status, created_at, id);
+
+-- Approved (ready for departure): status = ? ORDER BY leave_start_date, id
+DROP INDEX CONCURRENTLY IF EXISTS idx_outpasses_status_leave_start;
+CREATE INDEX CONCURRENTLY idx_outpasses_status_leave_start
+    ON outpasses (status, leave_start_date, id);
+
+-- Active (students out): status = ? ORDER BY actual_departure_time, id
+DROP INDEX CONCURRENTLY IF EXISTS idx_outpasses_status_departure;
+CREATE INDEX CONCURRENTLY idx_outpasses_status_departure
+    ON outpasses (status, actual_departure_time, id);
+
+-- Student history: student_id = ? ORDER BY created_at DESC, id DESC
+DROP INDEX CONCURRENTLY IF EXISTS idx_outpasses_student_created_at;
+CREATE INDEX CONCURRENTLY idx_outpasses_student_created_at
+    ON outpasses (student_id, created_at DESC, id DESC);
+
+-- hasActiveOrPendingOutpass: only the small live subset is indexed
+DROP INDEX CONCURRENTLY IF EXISTS idx_outpasses_student_live;
+CREATE INDEX CONCURRENTLY idx_outpasses_student_live
+    ON outpasses (student_id, status)
+    WHERE status IN ('PENDING', 'APPROVED', 'ACTIVE');
+
+-- findExpiredOutpasses: expected_return_date < now() on live rows only
+DROP INDEX CONCURRENTLY IF EXISTS idx_outpasses_live_expected_return;
+CREATE INDEX CONCURRENTLY idx_outpasses_live_expected_return
+    ON outpasses (expected_return_date)
+    WHERE status IN ('APPROVED', 'ACTIVE');
+
+-- Gate activity feed and completed-today counts
+DROP INDEX CONCURRENTLY IF EXISTS idx_outpasses_departure_time;
+CREATE INDEX CONCURRENTLY idx_outpasses_departure_time
+    ON outpasses (actual_departure_time);
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_outpasses_return_time;
+CREATE INDEX CONCURRENTLY idx_outpasses_return_time
+    ON outpasses (actual_return_time);
+
+-- Foreign keys (PostgreSQL does not index referencing columns automatically)
+DROP INDEX CONCURRENTLY IF EXISTS idx_outpasses_reviewed_by;
+CREATE INDEX CONCURRENTLY idx_outpasses_reviewed_by
+    ON outpasses (reviewed_by);
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_outpasses_departure_marked_by;
+CREATE INDEX CONCURRENTLY idx_outpasses_departure_marked_by
+    ON outpasses (departure_marked_by);
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_outpasses_return_marked_by;
+CREATE INDEX CONCURRENTLY idx_outpasses_return_marked_by
+    ON outpasses (return_marked_by);
+
+-- Hostel-scoped warden queries join through students.hostel_name
+DROP INDEX CONCURRENTLY IF EXISTS idx_students_hostel_name;
+CREATE INDEX CONCURRENTLY idx_students_hostel_name
+    ON students (hostel_name);
@@ -0,0 +1,11 @@
+-- Snapshot the student's hostel onto each outpass so hostel-scoped warden queries
+-- no longer join outpasses -> students -> users.
+
+ALTER TABLE outpasses ADD COLUMN hostel_name VARCHAR(255);
+
+UPDATE outpasses o
+SET hostel_name = s.hostel_name
+FROM students s
+WHERE s.user_id = o.student_id;
+
+ALTER TABLE outpasses ALTER COLUMN hostel_name SET NOT NULL;
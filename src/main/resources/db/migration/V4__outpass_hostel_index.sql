@@ -0,0 +1,6 @@
+-- Warden queues and counts: hostel_name = ? AND status = ? ORDER BY created_at, id.
+-- Kept apart from V3 because CONCURRENTLY cannot run inside the V3 transaction.
+-- Dropped first so a re-run rebuilds an INVALID index left behind by a failed build.
+DROP INDEX CONCURRENTLY IF EXISTS idx_outpasses_hostel_status_created_at;
+CREATE INDEX CONCURRENTLY idx_outpasses_hostel_status_created_at
+    ON outpasses (hostel_name, status, created_at, id);
@@ -0,0 +1,17 @@
+-- Transactional outbox for outpass state changes (see OutboxRelay)
+
+CREATE TABLE outbox_events (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    aggregate_type VARCHAR(50)  NOT NULL,
+    aggregate_id   BIGINT       NOT NULL,
+    event_type     VARCHAR(100) NOT NULL,
+    payload        TEXT         NOT NULL,
+    created_at     TIMESTAMP(6) NOT NULL,
+    published_at   TIMESTAMP(6)
+);
+
+-- The relay only ever reads the unpublished tail in id order
+CREATE INDEX idx_outbox_events_unpublished ON outbox_events (id) WHERE published_at IS NULL;
+
+-- Retention cleanup of delivered events
+CREATE INDEX idx_outbox_events_published_at ON outbox_events (published_at) WHERE published_at IS NOT NULL;
@@ -0,0 +1,2 @@
+-- Optimistic locking for outpass transitions (Outpass.version)
+ALTER TABLE outpasses ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
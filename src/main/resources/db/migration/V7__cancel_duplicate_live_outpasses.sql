@@ -0,0 +1,38 @@
+-- A student may hold only one live (PENDING, APPROVED or ACTIVE) outpass; V8 enforces it with a unique index.
+-- Two ACTIVE outpasses mean the student is recorded as out twice; which one is real needs a person to decide,
+-- so stop here instead of cancelling a departure the gate has already recorded.
+DO $$
+DECLARE
+    offenders TEXT;
+BEGIN
+    SELECT string_agg(student_id::TEXT, ', ' ORDER BY student_id)
+    INTO offenders
+    FROM (SELECT student_id
+          FROM outpasses
+          WHERE status = 'ACTIVE'
+          GROUP BY student_id
+          HAVING COUNT(*) > 1) duplicated;
+
+    IF offenders IS NOT NULL THEN
+        RAISE EXCEPTION 'Students with more than one ACTIVE outpass: %. Complete the extra ones by hand, then re-run the migration.', offenders;
+    END IF;
+END $$;
+
+-- Resolve the remaining duplicates: keep the one furthest along (ACTIVE, then APPROVED, then PENDING),
+-- newest first, and cancel the surplus PENDING and APPROVED rows. ACTIVE rows are never cancelled.
+WITH ranked AS (
+    SELECT id,
+           ROW_NUMBER() OVER (
+               PARTITION BY student_id
+               ORDER BY CASE status WHEN 'ACTIVE' THEN 0 WHEN 'APPROVED' THEN 1 ELSE 2 END,
+                        created_at DESC, id DESC) AS position
+    FROM outpasses
+    WHERE status IN ('PENDING', 'APPROVED', 'ACTIVE')
+)
+UPDATE outpasses o
+SET status  = 'CANCELLED',
+    version = o.version + 1
+FROM ranked r
+WHERE o.id = r.id
+  AND r.position > 1
+  AND o.status IN ('PENDING', 'APPROVED');
@@ -0,0 +1,13 @@
+-- At most one live outpass per student, checked atomically on insert/update (OutpassService.applyOutpass).
+-- Kept apart from V7 because CONCURRENTLY cannot run inside the V7 transaction.
+-- A failed CONCURRENTLY build leaves an INVALID index behind; drop it first so a re-run builds a valid one
+-- instead of skipping it as IF NOT EXISTS would.
+DROP INDEX CONCURRENTLY IF EXISTS ux_outpasses_one_live_per_student;
+
+CREATE UNIQUE INDEX CONCURRENTLY ux_outpasses_one_live_per_student
+    ON outpasses (student_id)
+    WHERE status IN ('PENDING', 'APPROVED', 'ACTIVE');
+
+-- hasActiveOrPendingOutpass can use the unique index above: same partial predicate, led by student_id.
+-- The V2 (student_id, status) partial index is now redundant and only adds write cost to every transition.
+DROP INDEX CONCURRENTLY IF EXISTS idx_outpasses_student_live;
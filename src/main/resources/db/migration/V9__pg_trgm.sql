@@ -0,0 +1,3 @@
+-- Trigram matching for the admin user search (UserRepository.searchUsers).
+-- pg_trgm is a trusted extension on PostgreSQL 13+, so the database owner can create it.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
@@ -0,0 +1,48 @@
+package com.mit.outpass;
+
+import com.mit.outpass.entity.Outpass;
+import com.mit.outpass.entity.Security;
+import com.mit.outpass.entity.Student;
+import com.mit.outpass.entity.Warden;
+import com.mit.outpass.enums.OutpassStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Unsaved entities for repository and service tests. JPA auditing is off in test slices,
+ * so createdAt is set here.
+ */
+public final class Fixtures {
+
+    private Fixtures() {}
+
+    public static Student student(int n, String hostelName) {
+        String roll = String.format("MIT2024%03d", n);
+        Student student = new Student(roll, "x", "Student " + n, "student" + n + "@test.local", null,
+                                      roll, "CSE", "B.Tech", hostelName, String.valueOf(100 + n), null);
+        student.setCreatedAt(LocalDateTime.now());
+        return student;
+    }
+
+    public static Warden warden(int n, String hostelName) {
+        Warden warden = new Warden("warden" + n, "x", "Warden " + n, "warden" + n + "@test.local", null,
+                                   "EMP" + n, "Hostel", "Warden", hostelName);
+        warden.setCreatedAt(LocalDateTime.now());
+        return warden;
+    }
+
+    public static Security security(int n) {
+        Security security = new Security("gate" + n, "x", "Gate " + n, "gate" + n + "@test.local", null,
+                                         "SEC" + n, "DAY", "Main Gate");
+        security.setCreatedAt(LocalDateTime.now());
+        return security;
+    }
+
+    public static Outpass outpass(Student student, OutpassStatus status, LocalDateTime createdAt) {
+        Outpass outpass = new Outpass(student, createdAt.plusHours(2), createdAt.plusHours(10),
+                                      "Family visit", "City");
+        outpass.setStatus(status);
+        outpass.setCreatedAt(createdAt);
+        return outpass;
+    }
+}
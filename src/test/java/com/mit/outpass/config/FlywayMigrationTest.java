@@ -0,0 +1,85 @@
+package com.mit.outpass.config;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every Flyway migration against a real PostgreSQL (the H2 used by the other tests cannot run
+ * CONCURRENTLY, pg_trgm or DO blocks), then lets Hibernate validate the entities against the result.
+ * Startup hangs here if Flyway's advisory lock is taken inside a transaction (see FlywayConfig).
+ */
+@DataJpaTest(properties = {"spring.flyway.enabled=true", "spring.jpa.hibernate.ddl-auto=validate"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(FlywayConfig.class)
+class FlywayMigrationTest {
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        try {
+            postgres = EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Test
+    void appliesEveryMigration() {
+        assertThat(flyway.info().pending()).isEmpty();
+        assertThat(flyway.info().current().getVersion().getVersion())
+                .isEqualTo(flyway.info().all()[flyway.info().all().length - 1].getVersion().getVersion());
+    }
+
+    @Test
+    void leavesNoInvalidIndex() {
+        Integer invalid = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_index WHERE NOT indisvalid", Integer.class);
+        assertThat(invalid).isZero();
+    }
+
+    @Test
+    void createsTheLiveOutpassGuard() {
+        Integer unique = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_indexes WHERE indexname = 'ux_outpasses_one_live_per_student' " +
+                "AND indexdef LIKE 'CREATE UNIQUE INDEX%'", Integer.class);
+        assertThat(unique).isEqualTo(1);
+    }
+
+    @Test
+    void dropsTheIndexesLaterOnesMadeRedundant() {
+        Integer redundant = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_indexes WHERE indexname IN ('idx_outpasses_student_live', 'idx_students_hostel_name')",
+                Integer.class);
+        assertThat(redundant).isZero();
+    }
+}
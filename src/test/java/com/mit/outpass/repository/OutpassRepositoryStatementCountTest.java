@@ -0,0 +1,92 @@
+package com.mit.outpass.repository;
+
+import com.mit.outpass.Fixtures;
+import com.mit.outpass.dto.OutpassResponse;
+import com.mit.outpass.entity.Outpass;
+import com.mit.outpass.entity.Student;
+import com.mit.outpass.entity.Warden;
+import com.mit.outpass.enums.OutpassStatus;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Outpass listings are built by a JPQL constructor expression, so listing N outpasses
+ * must cost one SQL statement no matter how many students and reviewers are involved.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class OutpassRepositoryStatementCountTest {
+
+    private static final int STUDENTS = 5;
+    private static final int OUTPASSES = 20;
+    private static final String HOSTEL = "Hostel A";
+
+    @Autowired
+    private OutpassRepository outpassRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Student firstStudent;
+
+    @BeforeEach
+    void setUp() {
+        Warden warden = entityManager.persist(Fixtures.warden(1, HOSTEL));
+        List<Student> students = new ArrayList<>();
+        for (int i = 1; i <= STUDENTS; i++) {
+            students.add(entityManager.persist(Fixtures.student(i, HOSTEL)));
+        }
+        firstStudent = students.get(0);
+
+        // Spread over several students, half of them reviewed, so lazy loading would show up as extra statements
+        LocalDateTime base = LocalDateTime.now().minusDays(30);
+        for (int i = 0; i < OUTPASSES; i++) {
+            Outpass outpass = Fixtures.outpass(students.get(i % STUDENTS), OutpassStatus.COMPLETED, base.plusHours(i));
+            if (i % 2 == 0) {
+                outpass.setReviewedBy(warden);
+            }
+            entityManager.persist(outpass);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics().clear();
+    }
+
+    @Test
+    void studentHistoryIsOneStatement() {
+        List<OutpassResponse> rows = outpassRepository.findResponsesByStudentId(firstStudent.getId());
+
+        assertThat(rows).hasSize(OUTPASSES / STUDENTS);
+        assertThat(rows).allSatisfy(row -> assertThat(row.getStudentName()).isNotNull());
+        assertThat(statistics().getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void hostelHistoryIsOneStatement() {
+        List<OutpassResponse> rows = outpassRepository.findAllResponsesByHostel(HOSTEL);
+
+        assertThat(rows).hasSize(OUTPASSES);
+        assertThat(rows).filteredOn(row -> row.getReviewedByName() != null).hasSize(OUTPASSES / 2);
+        assertThat(statistics().getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
@@ -0,0 +1,195 @@
+package com.mit.outpass.service;
+
+import com.mit.outpass.Fixtures;
+import com.mit.outpass.config.CampusClock;
+import com.mit.outpass.dto.OutpassResponse;
+import com.mit.outpass.entity.Outpass;
+import com.mit.outpass.entity.Security;
+import com.mit.outpass.entity.Student;
+import com.mit.outpass.enums.OutpassStatus;
+import com.mit.outpass.repository.OutpassRepository;
+import com.mit.outpass.repository.SecurityRepository;
+import com.mit.outpass.repository.StudentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Several gates acting on the same outpass at once: exactly one departure or return wins and the
+ * others get IllegalStateException (409 at the controller). Retries with the same Idempotency-Key
+ * run the action once and replay its result.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({OutpassService.class, IdempotencyCache.class})
+// Every gate needs its own committed transaction to race against
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class GateActionConcurrencyTest {
+
+    private static final int GATES = 8;
+
+    @Autowired
+    private OutpassService outpassService;
+
+    @Autowired
+    private IdempotencyCache idempotencyCache;
+
+    @Autowired
+    private OutpassRepository outpassRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private SecurityRepository securityRepository;
+
+    @MockBean
+    private CampusClock campusClock;
+
+    @MockBean
+    private OutpassStatusCounters statusCounters;
+
+    @MockBean
+    private OutpassExpiryScheduler expiryScheduler;
+
+    private Student student;
+    private Security security;
+    private ExecutorService gates;
+
+    @BeforeEach
+    void setUp() {
+        student = studentRepository.save(Fixtures.student(1, "Hostel A"));
+        security = securityRepository.save(Fixtures.security(1));
+        gates = Executors.newFixedThreadPool(GATES);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        gates.shutdownNow();
+        gates.awaitTermination(10, TimeUnit.SECONDS);
+        outpassRepository.deleteAll();
+        securityRepository.deleteAll();
+        studentRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentDeparturesHaveOneWinner() throws Exception {
+        Long id = saveOutpass(OutpassStatus.APPROVED).getId();
+
+        Outcome outcome = race(() -> outpassService.markDeparture(id, security.getId(), "Departed"));
+
+        assertThat(outcome.succeeded).isEqualTo(1);
+        assertThat(outcome.conflicts).isEqualTo(GATES - 1);
+        assertThat(outpassRepository.findById(id)).get()
+                .satisfies(o -> assertThat(o.getStatus()).isEqualTo(OutpassStatus.ACTIVE));
+    }
+
+    @Test
+    void concurrentReturnsHaveOneWinner() throws Exception {
+        Outpass outpass = Fixtures.outpass(student, OutpassStatus.ACTIVE, LocalDateTime.now().minusHours(2));
+        outpass.setActualDepartureTime(LocalDateTime.now().minusHours(1));
+        Long id = outpassRepository.save(outpass).getId();
+
+        Outcome outcome = race(() -> outpassService.markReturn(id, security.getId(), "Returned", null));
+
+        assertThat(outcome.succeeded).isEqualTo(1);
+        assertThat(outcome.conflicts).isEqualTo(GATES - 1);
+        assertThat(outpassRepository.findById(id)).get()
+                .satisfies(o -> assertThat(o.getStatus()).isEqualTo(OutpassStatus.COMPLETED));
+    }
+
+    @Test
+    void retriesWithSameIdempotencyKeyReplayOneDeparture() throws Exception {
+        Long id = saveOutpass(OutpassStatus.APPROVED).getId();
+        AtomicInteger executions = new AtomicInteger();
+
+        List<IdempotencyCache.Result<OutpassResponse>> results = all(() ->
+                idempotencyCache.execute(security.getId(), "retry-key", "departure:" + id, () -> {
+                    executions.incrementAndGet();
+                    return outpassService.markDeparture(id, security.getId(), "Departed");
+                }));
+
+        assertThat(executions).hasValue(1);
+        assertThat(results).filteredOn(r -> !r.isReplayed()).hasSize(1);
+        assertThat(results).allSatisfy(r -> {
+            assertThat(r.getValue().getId()).isEqualTo(id);
+            assertThat(r.getValue().getStatus()).isEqualTo(OutpassStatus.ACTIVE);
+        });
+    }
+
+    private Outpass saveOutpass(OutpassStatus status) {
+        return outpassRepository.save(Fixtures.outpass(student, status, LocalDateTime.now().minusHours(1)));
+    }
+
+    // Release GATES threads at once and count winners and conflicts; any other failure fails the test
+    private Outcome race(Supplier<OutpassResponse> action) throws Exception {
+        Outcome outcome = new Outcome();
+        for (Future<OutpassResponse> future : start(action::get)) {
+            try {
+                future.get(30, TimeUnit.SECONDS);
+                outcome.succeeded++;
+            } catch (ExecutionException e) {
+                if (!(e.getCause() instanceof IllegalStateException)) {
+                    throw e;
+                }
+                outcome.conflicts++;
+            }
+        }
+        return outcome;
+    }
+
+    private <T> List<T> all(Callable<T> action) throws Exception {
+        List<T> values = new ArrayList<>();
+        for (Future<T> future : start(action)) {
+            values.add(future.get(30, TimeUnit.SECONDS));
+        }
+        return values;
+    }
+
+    private <T> List<Future<T>> start(Callable<T> action) {
+        CountDownLatch ready = new CountDownLatch(GATES);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        for (int i = 0; i < GATES; i++) {
+            futures.add(gates.submit(() -> {
+                ready.countDown();
+                go.await();
+                return action.call();
+            }));
+        }
+        try {
+            ready.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        go.countDown();
+        return futures;
+    }
+
+    private static final class Outcome {
+        private int succeeded;
+        private int conflicts;
+    }
+}
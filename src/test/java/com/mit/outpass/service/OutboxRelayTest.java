@@ -0,0 +1,213 @@
+package com.mit.outpass.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mit.outpass.Fixtures;
+import com.mit.outpass.dto.OutpassStatusEvent;
+import com.mit.outpass.entity.OutboxEvent;
+import com.mit.outpass.entity.Outpass;
+import com.mit.outpass.entity.Student;
+import com.mit.outpass.enums.OutpassStatus;
+import com.mit.outpass.repository.OutboxEventRepository;
+import com.mit.outpass.repository.OutpassRepository;
+import com.mit.outpass.repository.StudentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * OutboxRelay against a real outbox table and an in-memory publisher: the outbox row commits and rolls
+ * back with its status change, events arrive in id order across batches, and a batch the publisher
+ * rejects stays unpublished until the next drain delivers it.
+ */
+@DataJpaTest(properties = {"app.outbox.batch-size=2", "app.outbox.max-batches-per-run=3"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({OutboxRelay.class, OutboxRelayTest.Config.class})
+// The relay commits its own transactions, so the test must not wrap it in one that rolls back
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxRelayTest {
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutpassRepository outpassRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private InMemoryPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        publisher.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboxEventRepository.deleteAll();
+        outpassRepository.deleteAll();
+        studentRepository.deleteAll();
+    }
+
+    @Test
+    void outboxRowCommitsWithTheStatusChange() {
+        Long id = saveApprovedOutpass();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> changeStatus(id));
+
+        assertThat(outpassRepository.findById(id)).get()
+                .satisfies(o -> assertThat(o.getStatus()).isEqualTo(OutpassStatus.ACTIVE));
+        assertThat(outboxEventRepository.findAll()).singleElement()
+                .satisfies(e -> assertThat(e.getAggregateId()).isEqualTo(id));
+    }
+
+    @Test
+    void outboxRowRollsBackWithTheStatusChange() {
+        Long id = saveApprovedOutpass();
+
+        assertThatThrownBy(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            changeStatus(id);
+            throw new IllegalStateException("gate action failed after the change");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(outpassRepository.findById(id)).get()
+                .satisfies(o -> assertThat(o.getStatus()).isEqualTo(OutpassStatus.APPROVED));
+        assertThat(outboxEventRepository.findAll()).isEmpty();
+    }
+
+    @Test
+    void deliversEveryEventInIdOrderAcrossBatches() {
+        List<Long> ids = saveEvents(5);
+
+        outboxRelay.relay();
+
+        assertThat(publisher.delivered).containsExactlyElementsOf(ids);
+        // batch-size=2 splits five events into batches of 2, 2 and 1
+        assertThat(publisher.batchSizes).containsExactly(2, 2, 1);
+        assertThat(outboxEventRepository.findAll()).allSatisfy(e -> assertThat(e.getPublishedAt()).isNotNull());
+    }
+
+    @Test
+    void oneRunStopsAfterMaxBatchesAndTheNextRunContinues() {
+        List<Long> ids = saveEvents(8);
+
+        outboxRelay.relay();
+
+        // max-batches-per-run=3 at batch-size=2
+        assertThat(publisher.delivered).containsExactlyElementsOf(ids.subList(0, 6));
+
+        outboxRelay.relay();
+
+        assertThat(publisher.delivered).containsExactlyElementsOf(ids);
+    }
+
+    @Test
+    void rejectedBatchStaysUnpublishedAndIsRedeliveredOnNextDrain() {
+        List<Long> ids = saveEvents(3);
+        publisher.failing = true;
+
+        outboxRelay.relay();
+
+        assertThat(publisher.delivered).isEmpty();
+        assertThat(publisher.attempts).isEqualTo(1);
+        assertThat(outboxEventRepository.findAll()).allSatisfy(e -> assertThat(e.getPublishedAt()).isNull());
+
+        publisher.failing = false;
+        outboxRelay.relay();
+
+        assertThat(publisher.delivered).containsExactlyElementsOf(ids);
+        assertThat(outboxEventRepository.findAll()).allSatisfy(e -> assertThat(e.getPublishedAt()).isNotNull());
+    }
+
+    private Long saveApprovedOutpass() {
+        Student student = studentRepository.save(Fixtures.student(1, "Hostel A"));
+        return outpassRepository.save(Fixtures.outpass(student, OutpassStatus.APPROVED, LocalDateTime.now())).getId();
+    }
+
+    // What OutpassService does for a transition: change the row, then publish the event in the same transaction
+    private void changeStatus(Long id) {
+        Outpass outpass = outpassRepository.findById(id).orElseThrow();
+        outpass.setStatus(OutpassStatus.ACTIVE);
+        outpassRepository.save(outpass);
+        eventPublisher.publishEvent(new OutpassStatusEvent(id, outpass.getStudent().getId(), outpass.getHostelName(),
+                OutpassStatus.APPROVED, OutpassStatus.ACTIVE));
+    }
+
+    private List<Long> saveEvents(int count) {
+        List<Long> ids = new ArrayList<>();
+        for (long outpassId = 1; outpassId <= count; outpassId++) {
+            OutboxEvent event = new OutboxEvent("Outpass", outpassId, "OutpassStatusChanged", "{\"outpassId\":" + outpassId + "}");
+            ids.add(outboxEventRepository.save(event).getId());
+        }
+        return ids;
+    }
+
+    static class InMemoryPublisher implements OutboxPublisher {
+
+        private final List<Long> delivered = new CopyOnWriteArrayList<>();
+        private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        private volatile boolean failing;
+        private volatile int attempts;
+
+        @Override
+        public void publish(List<OutboxEvent> batch) throws Exception {
+            attempts++;
+            if (failing) {
+                throw new Exception("broker unavailable");
+            }
+            batchSizes.add(batch.size());
+            batch.forEach(event -> delivered.add(event.getId()));
+        }
+
+        void reset() {
+            delivered.clear();
+            batchSizes.clear();
+            failing = false;
+            attempts = 0;
+        }
+    }
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        InMemoryPublisher inMemoryPublisher() {
+            return new InMemoryPublisher();
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            // Like Boot's own mapper: OutpassStatusEvent carries a LocalDateTime
+            return new ObjectMapper().findAndRegisterModules();
+        }
+    }
+}